@@ -0,0 +1,83 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// MultiSourceRunner 확장성 벤치마크: 같은 출발지 묶음을 스레드 수만 바꿔 돌리고 1스레드 대비 속도 향상을 잰다
+//
+//   javac -d out src/*.java bench/*.java
+//   java -cp out MultiSourceBenchmark [--size 100000] [--sources 2000] [--threads 1,2,4,8] [--repeat 3]
+//
+// 스레드 수를 주지 않으면 1부터 코어 수까지 두 배씩 늘린다 (코어 수보다 많은 스레드는 의미가 없다)
+// 속도 향상은 항상 1스레드 결과를 기준으로 하므로 목록에 1이 없으면 맨 앞에 넣는다
+// 지표: 가장 빠른 반복의 경과 시간, 초당 탐색 수, 속도 향상(1스레드 / n스레드), 효율(속도 향상 / n)
+public final class MultiSourceBenchmark {
+    // JIT가 결과를 버리지 못하게 하는 용도
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        String sizeOption = Main.optionValue(args, "--size");
+        String sourceOption = Main.optionValue(args, "--sources");
+        String threadOption = Main.optionValue(args, "--threads");
+        String repeatOption = Main.optionValue(args, "--repeat");
+        int size = sizeOption != null ? Integer.parseInt(sizeOption) : 100_000;
+        int sourceCount = sourceOption != null ? Integer.parseInt(sourceOption) : 2000;
+        int repeat = repeatOption != null ? Integer.parseInt(repeatOption) : 3;
+        int[] threadCounts = threadOption != null
+                ? Arrays.stream(threadOption.split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray()
+                : doublingUpTo(Runtime.getRuntime().availableProcessors());
+        if (threadCounts[0] != 1) {
+            // 속도 향상의 기준이 되는 1스레드를 맨 앞에 넣는다
+            int[] withBaseline = new int[threadCounts.length + 1];
+            withBaseline[0] = 1;
+            System.arraycopy(threadCounts, 0, withBaseline, 1, threadCounts.length);
+            threadCounts = withBaseline;
+        }
+
+        System.out.printf("코어 %d개, 출발지 %d개, 반복 %d회 중 최솟값%n",
+                Runtime.getRuntime().availableProcessors(), sourceCount, repeat);
+        System.out.printf("%-18s %8s %10s %12s %8s %8s%n", "graph", "threads", "ms", "searches/s", "speedup", "eff");
+        run("grid-" + size, RoutingBenchmark.grid(size).getCompactGraph(), sourceCount, threadCounts, repeat);
+        run("geometric-" + size, RoutingBenchmark.geometric(size).getCompactGraph(), sourceCount, threadCounts, repeat);
+    }
+
+    private static void run(String name, CompactGraph graph, int sourceCount, int[] threadCounts, int repeat) {
+        Random random = new Random(7);
+        int[] sources = new int[sourceCount];
+        for (int i = 0; i < sourceCount; i++) {
+            sources[i] = random.nextInt(graph.nodeCount());
+        }
+
+        double baseline = 0;
+        for (int threads : threadCounts) {
+            try (MultiSourceRunner runner = new MultiSourceRunner(threads)) {
+                // 워밍업: JIT 컴파일과 작업 스레드별 작업 공간 할당
+                sink += sum(runner.distanceSums(graph, Arrays.copyOf(sources, Math.min(sourceCount, threads * 32)), true));
+                long best = Long.MAX_VALUE;
+                for (int r = 0; r < repeat; r++) {
+                    long start = System.nanoTime();
+                    sink += sum(runner.distanceSums(graph, sources, true));
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                double millis = best / 1e6;
+                if (baseline == 0) baseline = millis;
+                double speedup = baseline / millis;
+                System.out.printf("%-18s %8d %10.1f %12.0f %8.2f %8.2f%n",
+                        name, threads, millis, sourceCount / (millis / 1000), speedup, speedup / threads);
+            }
+        }
+    }
+
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long value : values) total += value;
+        return total;
+    }
+
+    private static int[] doublingUpTo(int cores) {
+        List<Integer> counts = new ArrayList<>();
+        for (int t = 1; t < cores; t *= 2) counts.add(t);
+        counts.add(cores);
+        return counts.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,103 @@
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+// 힙 그래프(GraphManager + CompactGraph)와 힙 밖 그래프(OffHeapGraph)의 메모리/탐색 속도 비교
+//
+//   javac -d out src/*.java bench/*.java
+//   java -Xmx4g -cp out OffHeapBenchmark [--sizes 100000,1000000] [--queries 200]
+//
+// 같은 그래프 파일을 두 방식으로 읽고 GC 뒤 남은 힙(retained), direct 버퍼 크기, 읽는 시간, 질의 처리량을 잰다
+// 힙 쪽은 편집기/GUI가 쓰는 그대로 Node/Edge 객체 리스트와 CompactGraph를 모두 들고 있는 상태다
+public final class OffHeapBenchmark {
+    // JIT가 결과를 버리지 못하게 하는 용도
+    private static volatile long sink;
+
+    public static void main(String[] args) throws Exception {
+        String sizeOption = Main.optionValue(args, "--sizes");
+        String queryOption = Main.optionValue(args, "--queries");
+        int[] sizes = Arrays.stream((sizeOption != null ? sizeOption : "100000,1000000").split(","))
+                .mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+        int queryCount = queryOption != null ? Integer.parseInt(queryOption) : 200;
+
+        System.out.printf("%-18s %-8s %12s %12s %10s %12s%n", "graph", "store", "heap(MB)", "direct(MB)", "load(ms)", "queries/s");
+        for (int size : sizes) {
+            Path file = Files.createTempFile("offheap-bench", ".navg");
+            try {
+                RoutingBenchmark.geometric(size).saveGraphFile(file);
+                run("geometric-" + size, file, queryCount);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static void run(String name, Path file, int queryCount) throws Exception {
+        long heapBefore = usedHeap();
+        long directBefore = directBytes();
+        long start = System.nanoTime();
+        GraphManager graphManager = new GraphManager();
+        graphManager.loadGraphFile(file);
+        CompactGraph compact = graphManager.getCompactGraph();
+        double loadMillis = (System.nanoTime() - start) / 1e6;
+        int[][] queries = queries(compact.nodeCount(), queryCount);
+        print(name, "heap", usedHeap() - heapBefore, directBytes() - directBefore, loadMillis,
+                throughput(queries, (s, t) -> DijkstraEngine.route(compact, s, t, true).size()));
+        sink += graphManager.getNodes().size();
+        graphManager = null;
+
+        heapBefore = usedHeap();
+        directBefore = directBytes();
+        start = System.nanoTime();
+        OffHeapGraph offHeap = OffHeapGraph.open(file);
+        loadMillis = (System.nanoTime() - start) / 1e6;
+        print(name, "offheap", usedHeap() - heapBefore, directBytes() - directBefore, loadMillis,
+                throughput(queries, (s, t) -> DijkstraEngine.route(offHeap, s, t, true).size()));
+        sink += offHeap.nodeCount();
+    }
+
+    private interface Query {
+        int run(int source, int target);
+    }
+
+    // 한 번 워밍업한 뒤 같은 질의 묶음의 초당 처리 수
+    private static double throughput(int[][] queries, Query query) {
+        for (int[] q : queries) sink += query.run(q[0], q[1]);
+        long start = System.nanoTime();
+        for (int[] q : queries) sink += query.run(q[0], q[1]);
+        return queries.length / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static int[][] queries(int nodeCount, int count) {
+        Random random = new Random(11);
+        int[][] queries = new int[count][];
+        for (int i = 0; i < count; i++) {
+            queries[i] = new int[]{random.nextInt(nodeCount), random.nextInt(nodeCount)};
+        }
+        return queries;
+    }
+
+    private static void print(String name, String store, long heap, long direct, double loadMillis, double perSecond) {
+        System.out.printf("%-18s %-8s %12.1f %12.1f %10.0f %12.0f%n",
+                name, store, heap / 1048576.0, direct / 1048576.0, loadMillis, perSecond);
+    }
+
+    // GC를 몇 번 돌린 뒤의 힙 사용량 (남아 있는 객체만)
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long directBytes() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) return pool.getMemoryUsed();
+        }
+        return 0;
+    }
+}
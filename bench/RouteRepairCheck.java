@@ -0,0 +1,134 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// 경로표 점진 갱신(repair)과 처음부터 다시 만들기(rebuild)의 결과/시간 비교
+//
+//   javac -d out src/*.java bench/*.java
+//   java -cp out RouteRepairCheck [--sizes 400,1600] [--updates 200]
+//
+// 격자 그래프에 보도 비용 변경/삭제/추가, 무당 비용 변경/끄기/켜기/추가를 무작위로 섞어 GraphManager로 적용하고
+// 바뀔 때마다 GraphManager가 고친 경로표 두 개(보도만, 무당 포함)를 같은 스냅샷으로 RouteTable.build한 표와 모든 칸 비교한다
+// 다음 노드는 거리가 같은 경로가 여럿이면 달라도 되므로 거리만 비교하고, 경로는 구간 비용 합이 거리와 같은지 본다
+// 다른 칸이 하나라도 있으면 종료 코드 1
+public final class RouteRepairCheck {
+
+    public static void main(String[] args) {
+        String sizeOption = Main.optionValue(args, "--sizes");
+        String updateOption = Main.optionValue(args, "--updates");
+        int[] sizes = Arrays.stream((sizeOption != null ? sizeOption : "400,1600").split(","))
+                .mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+        int updateCount = updateOption != null ? Integer.parseInt(updateOption) : 200;
+
+        System.out.printf("%-12s %8s %14s %14s %8s %10s%n", "graph", "updates", "repair(ms/op)", "rebuild(ms/op)", "speedup", "mismatches");
+        boolean ok = true;
+        for (int size : sizes) {
+            ok &= run(size, updateCount);
+        }
+        if (!ok) System.exit(1);
+    }
+
+    private static boolean run(int size, int updateCount) {
+        GraphManager graphManager = RoutingBenchmark.grid(size);
+        graphManager.getRouteTable(false);
+        graphManager.getRouteTable(true);
+        Random random = new Random(size);
+        long repairNanos = 0;
+        long rebuildNanos = 0;
+        long mismatches = 0;
+        for (int u = 0; u < updateCount; u++) {
+            long start = System.nanoTime();
+            String change = applyRandomChange(graphManager, random);
+            repairNanos += System.nanoTime() - start;
+
+            CompactGraph graph = graphManager.getCompactGraph();
+            for (boolean includeMudang : new boolean[]{false, true}) {
+                RouteTable repaired = graphManager.getRouteTable(includeMudang);
+                start = System.nanoTime();
+                RouteTable rebuilt = RouteTable.build(graph, includeMudang);
+                rebuildNanos += System.nanoTime() - start;
+                long different = compare(repaired, rebuilt, random);
+                if (different > 0 && mismatches == 0) {
+                    System.out.println("  첫 불일치: " + change + (includeMudang ? " (무당 포함)" : " (보도만)"));
+                }
+                mismatches += different;
+            }
+        }
+        // 한 번의 변경이 표 두 개를 고치므로 다시 만들기도 두 번을 한 연산으로 센다
+        double repairMillis = repairNanos / 1e6 / updateCount;
+        double rebuildMillis = rebuildNanos / 1e6 / updateCount;
+        System.out.printf("%-12s %8d %14.3f %14.3f %7.1fx %10d%n", "grid-" + size, updateCount,
+                repairMillis, rebuildMillis, rebuildMillis / repairMillis, mismatches);
+        return mismatches == 0;
+    }
+
+    // 변경 하나를 골라 적용하고 설명을 돌려준다
+    private static String applyRandomChange(GraphManager graphManager, Random random) {
+        List<Edge> edges = graphManager.getEdges();
+        List<Mudang> mudangs = graphManager.getMudangs();
+        List<Node> nodes = graphManager.getNodes();
+        int cost = 1 + random.nextInt(30);
+        switch (random.nextInt(7)) {
+            case 0:
+            case 1: {
+                Edge edge = edges.get(random.nextInt(edges.size()));
+                graphManager.updateEdgeCost(edge.from.name, edge.to.name, cost);
+                return "보도 비용 " + edge.from.name + " - " + edge.to.name + " = " + cost;
+            }
+            case 2: {
+                Edge edge = edges.get(random.nextInt(edges.size()));
+                graphManager.removeEdge(edge.from.name, edge.to.name);
+                return "보도 삭제 " + edge.from.name + " - " + edge.to.name;
+            }
+            case 3: {
+                Node from = nodes.get(random.nextInt(nodes.size()));
+                Node to = nodes.get(random.nextInt(nodes.size()));
+                graphManager.addEdge(from.name, to.name, cost);
+                return "보도 추가 " + from.name + " - " + to.name + " = " + cost;
+            }
+            case 4: {
+                if (mudangs.isEmpty()) return "변경 없음";
+                Mudang line = mudangs.get(random.nextInt(mudangs.size()));
+                graphManager.updateMudangCost(line.from.name, line.to.name, cost);
+                return "무당 비용 " + line.from.name + " -> " + line.to.name + " = " + cost;
+            }
+            case 5: {
+                if (mudangs.isEmpty()) return "변경 없음";
+                Mudang line = mudangs.get(random.nextInt(mudangs.size()));
+                graphManager.setMudangEnabled(line.from.name, line.to.name, false);
+                graphManager.setMudangEnabled(line.from.name, line.to.name, random.nextBoolean());
+                return "무당 끄기/켜기 " + line.from.name + " -> " + line.to.name;
+            }
+            default: {
+                Node from = nodes.get(random.nextInt(nodes.size()));
+                Node to = nodes.get(random.nextInt(nodes.size()));
+                graphManager.addMudang(from.name, to.name, cost);
+                return "무당 추가 " + from.name + " -> " + to.name + " = " + cost;
+            }
+        }
+    }
+
+    // 거리가 다른 칸 수 (경로는 몇 쌍만 골라 구간 비용 합을 확인한다)
+    private static long compare(RouteTable repaired, RouteTable rebuilt, Random random) {
+        int n = rebuilt.size();
+        if (repaired.size() != n) return (long) n * n;
+        long different = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (repaired.distance(i, j) != rebuilt.distance(i, j)) different++;
+            }
+        }
+        for (int k = 0; k < 32; k++) {
+            int source = random.nextInt(n);
+            int target = random.nextInt(n);
+            int distance = repaired.distance(source, target);
+            if (source == target || distance == Integer.MAX_VALUE) continue;
+            int sum = 0;
+            for (PathSegment segment : repaired.route(source, target)) {
+                sum += segment.weight;
+            }
+            if (sum != distance) different++;
+        }
+        return different;
+    }
+}
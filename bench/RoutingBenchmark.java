@@ -0,0 +1,270 @@
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// 경로 탐색, 경로 요약, 노드 이름 검색 벤치마크
+// 빌드 도구 없이 src와 함께 컴파일해 실행한다 (JMH와 같은 지표를 직접 측정)
+//
+//   javac -d out src/*.java bench/*.java
+//   java -cp out RoutingBenchmark [--sizes 1000,10000,100000] [--seconds 2] [--filter 이름] [--ch]
+//
+// 그래프: 실제 캠퍼스 16개 노드, 격자(grid), 무작위 기하 그래프(random geometric)
+// 무당 구간에는 모두 운행 시간표가 있어서 출발 시각 기준 탐색(TimeDependentRouter)도 같은 그래프로 잰다
+// 지표: 처리량(ops/s), 지연 백분위수(p50/p90/p99/p99.9), 연산당 할당 바이트, 측정 구간의 GC 횟수/시간
+public final class RoutingBenchmark {
+    private static final int QUERY_COUNT = 1024;
+    private static final int MAX_SAMPLES = 1 << 20;
+    // 프로필 질의는 탈 수 있는 편마다 탐색을 한 번씩 하므로 이보다 큰 그래프에서는 재지 않는다
+    private static final int MAX_PROFILE_NODES = 10_000;
+
+    // JIT가 결과를 버리지 못하게 하는 용도
+    private static volatile int sink;
+
+    private final double seconds;
+    private final String filter;
+
+    private RoutingBenchmark(double seconds, String filter) {
+        this.seconds = seconds;
+        this.filter = filter;
+    }
+
+    public static void main(String[] args) {
+        String sizeOption = Main.optionValue(args, "--sizes");
+        String secondsOption = Main.optionValue(args, "--seconds");
+        int[] sizes = Arrays.stream((sizeOption != null ? sizeOption : "1000,10000,100000").split(","))
+                .mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+        RoutingBenchmark benchmark = new RoutingBenchmark(
+                secondsOption != null ? Double.parseDouble(secondsOption) : 2.0, Main.optionValue(args, "--filter"));
+
+        System.out.printf("%-18s %-28s %12s %9s %9s %9s %9s %10s %8s%n",
+                "graph", "benchmark", "ops/s", "p50(us)", "p90(us)", "p99(us)", "p99.9(us)", "B/op", "gc(ms)");
+
+        GraphManager campus = new GraphManager();
+        campus.initializeData();
+        benchmark.run(new Fixture("campus-16", campus), Main.hasFlag(args, "--ch"));
+        for (int size : sizes) {
+            benchmark.run(new Fixture("grid-" + size, grid(size)), Main.hasFlag(args, "--ch"));
+            benchmark.run(new Fixture("geometric-" + size, geometric(size)), Main.hasFlag(args, "--ch"));
+        }
+    }
+
+    private void run(Fixture fixture, boolean withHierarchy) {
+        CompactGraph graph = fixture.graph;
+        List<Edge> edges = fixture.graphManager.getEdges();
+        List<Mudang> mudangs = fixture.graphManager.getMudangs();
+
+        measure(fixture, "Dijkstra.findShortestPath", i ->
+                Dijkstra.findShortestPath(fixture.start(i), fixture.end(i), edges, mudangs).size());
+        measure(fixture, "DijkstraEngine.ASTAR", i ->
+                DijkstraEngine.route(graph, fixture.sources[i], fixture.targets[i], true, SearchMode.ASTAR).size());
+        measure(fixture, "DijkstraEngine.BIDIRECTIONAL", i ->
+                DijkstraEngine.route(graph, fixture.sources[i], fixture.targets[i], true, SearchMode.BIDIRECTIONAL).size());
+        measure(fixture, "PathInfo.findPathInfo", i ->
+                PathInfo.findPathInfo(fixture.start(i), fixture.end(i), edges, mudangs).totalDistance);
+
+        PathInfo[] infos = new PathInfo[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            infos[i] = PathInfo.fromPath(fixture.start(i), fixture.end(i),
+                    DijkstraEngine.route(graph, fixture.sources[i], fixture.targets[i], true));
+        }
+        measure(fixture, "PathInfo.getDetailedPathInfo", i -> infos[i].getDetailedPathInfo().length());
+        measure(fixture, "GraphManager.findNodeByName", i ->
+                System.identityHashCode(fixture.graphManager.findNodeByName(fixture.names[i])));
+
+        // 출발 시각 기준 경로 (질의마다 06:00 ~ 23:59 사이 출발), 프로필은 08:00 ~ 09:00 출발 전체
+        TimeDependentRouter timeRouter = fixture.graphManager.getTimeDependentRouter();
+        measure(fixture, "TimeDependentRouter.route", i ->
+                timeRouter.route(fixture.sources[i], fixture.targets[i], fixture.departures[i]).size());
+        if (graph.nodeCount() <= MAX_PROFILE_NODES) {
+            measure(fixture, "TimeDependentRouter.profile", i ->
+                    timeRouter.profile(fixture.sources[i], fixture.targets[i], 8 * 60, 9 * 60).size());
+        }
+
+        if (withHierarchy) {
+            ContractionHierarchy hierarchy = ContractionHierarchy.build(graph, true);
+            measure(fixture, "ContractionHierarchy.route", i ->
+                    hierarchy.route(fixture.sources[i], fixture.targets[i]).size());
+        }
+    }
+
+    private interface Operation {
+        int run(int query);
+    }
+
+    private void measure(Fixture fixture, String name, Operation operation) {
+        if (filter != null && !name.contains(filter)) return;
+
+        // 워밍업 (측정 시간의 절반)
+        long warmupEnd = System.nanoTime() + (long) (seconds * 0.5e9);
+        for (int i = 0; System.nanoTime() < warmupEnd; i++) {
+            sink += operation.run(i & (QUERY_COUNT - 1));
+        }
+
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long[] samples = new long[MAX_SAMPLES];
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTime();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long end = start + (long) (seconds * 1e9);
+        int ops = 0;
+        long now = start;
+        while (now < end) {
+            long before = now;
+            sink += operation.run(ops & (QUERY_COUNT - 1));
+            now = System.nanoTime();
+            if (ops < MAX_SAMPLES) samples[ops] = now - before;
+            ops++;
+        }
+        long elapsed = now - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        long gcCount = gcCount() - gcCountBefore;
+        long gcTime = gcTime() - gcTimeBefore;
+
+        int recorded = Math.min(ops, MAX_SAMPLES);
+        Arrays.sort(samples, 0, recorded);
+        System.out.printf("%-18s %-28s %12.0f %9.2f %9.2f %9.2f %9.2f %10d %8s%n",
+                fixture.name, name, ops / (elapsed / 1e9),
+                percentile(samples, recorded, 0.50), percentile(samples, recorded, 0.90),
+                percentile(samples, recorded, 0.99), percentile(samples, recorded, 0.999),
+                allocated / Math.max(ops, 1), gcTime + "/" + gcCount);
+    }
+
+    private static double percentile(long[] sorted, int count, double p) {
+        return sorted[Math.min(count - 1, (int) (p * count))] / 1000.0;
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) total += Math.max(gc.getCollectionCount(), 0);
+        return total;
+    }
+
+    private static long gcTime() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) total += Math.max(gc.getCollectionTime(), 0);
+        return total;
+    }
+
+    // 그래프와 고정된 무작위 질의 집합
+    private static final class Fixture {
+        final String name;
+        final GraphManager graphManager;
+        final CompactGraph graph;
+        final int[] sources = new int[QUERY_COUNT];
+        final int[] targets = new int[QUERY_COUNT];
+        final String[] names = new String[QUERY_COUNT];
+        final int[] departures = new int[QUERY_COUNT];
+
+        Fixture(String name, GraphManager graphManager) {
+            this.name = name;
+            this.graphManager = graphManager;
+            this.graph = graphManager.getCompactGraph();
+            Random random = new Random(42);
+            int n = graph.nodeCount();
+
+            // 도달 불가 쌍이 섞이지 않도록 노드 0과 보도로 이어진 노드 중에서만 고른다
+            SearchWorkspace workspace = SearchWorkspace.current(n);
+            DijkstraEngine.search(graph, 0, -1, false, workspace);
+            int[] connected = new int[n];
+            int count = 0;
+            for (int v = 0; v < n; v++) {
+                if (workspace.isReached(v)) connected[count++] = v;
+            }
+            for (int i = 0; i < QUERY_COUNT; i++) {
+                sources[i] = connected[random.nextInt(count)];
+                do {
+                    targets[i] = connected[random.nextInt(count)];
+                } while (targets[i] == sources[i]);
+                names[i] = graph.node(random.nextInt(n)).name;
+            }
+            for (int i = 0; i < QUERY_COUNT; i++) {
+                departures[i] = 6 * 60 + random.nextInt(18 * 60);
+            }
+        }
+
+        Node start(int i) {
+            return graph.node(sources[i]);
+        }
+
+        Node end(int i) {
+            return graph.node(targets[i]);
+        }
+    }
+
+    // k x k 격자 (n에 가장 가까운 정사각형), 노드 간격 10픽셀, 일부 무작위 장거리 무당 경로
+    static GraphManager grid(int n) {
+        int k = Math.max(2, (int) Math.round(Math.sqrt(n)));
+        Random random = new Random(n);
+        GraphManager graphManager = new GraphManager();
+        for (int i = 0; i < k * k; i++) {
+            graphManager.addNode("g" + i, (i % k) * 10, (i / k) * 10);
+        }
+        for (int i = 0; i < k * k; i++) {
+            if (i % k + 1 < k) graphManager.addEdge("g" + i, "g" + (i + 1), 10 + random.nextInt(10));
+            if (i + k < k * k) graphManager.addEdge("g" + i, "g" + (i + k), 10 + random.nextInt(10));
+        }
+        addMudangs(graphManager, random);
+        return graphManager;
+    }
+
+    // 정사각형 안에 무작위로 흩어진 점, 반지름 안의 이웃끼리 연결 (평균 차수 약 6)
+    static GraphManager geometric(int n) {
+        Random random = new Random(n);
+        double side = Math.sqrt(n) * 100;
+        double radius = Math.sqrt(6.0 / (Math.PI * n)) * side;
+        int cells = Math.max(1, (int) (side / radius));
+        List<List<Integer>> buckets = new ArrayList<>(cells * cells);
+        for (int i = 0; i < cells * cells; i++) buckets.add(new ArrayList<>());
+
+        GraphManager graphManager = new GraphManager();
+        for (int i = 0; i < n; i++) {
+            int x = (int) (random.nextDouble() * side);
+            int y = (int) (random.nextDouble() * side);
+            graphManager.addNode("r" + i, x, y);
+            buckets.get(cell(y, side, cells) * cells + cell(x, side, cells)).add(i);
+        }
+        List<Node> nodes = graphManager.getNodes();
+        for (int i = 0; i < n; i++) {
+            Node node = nodes.get(i);
+            int cx = cell(node.x, side, cells);
+            int cy = cell(node.y, side, cells);
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if (cx + dx < 0 || cy + dy < 0 || cx + dx >= cells || cy + dy >= cells) continue;
+                    for (int j : buckets.get((cy + dy) * cells + cx + dx)) {
+                        if (j <= i) continue;
+                        double length = Math.hypot(node.x - nodes.get(j).x, node.y - nodes.get(j).y);
+                        if (length <= radius) {
+                            graphManager.addEdge(node.name, nodes.get(j).name, (int) Math.ceil(length) + 1);
+                        }
+                    }
+                }
+            }
+        }
+        addMudangs(graphManager, random);
+        return graphManager;
+    }
+
+    private static int cell(int coordinate, double side, int cells) {
+        return Math.min(cells - 1, (int) (coordinate / side * cells));
+    }
+
+    // 노드 200개당 하나꼴로 직선 거리의 1/4 비용인 무당 경로, 06:00 ~ 23:00 사이 10/15/20분 간격으로 운행
+    private static void addMudangs(GraphManager graphManager, Random random) {
+        List<Node> nodes = graphManager.getNodes();
+        for (int i = 0; i < Math.max(1, nodes.size() / 200); i++) {
+            Node from = nodes.get(random.nextInt(nodes.size()));
+            Node to = nodes.get(random.nextInt(nodes.size()));
+            int cost = (int) Math.ceil(Math.hypot(from.x - to.x, from.y - to.y) / 4) + 1;
+            graphManager.addMudang(from.name, to.name, cost);
+            graphManager.setMudangTimetable(from.name, to.name, MudangTimetable.periodic(6 * 60, 23 * 60, 10 + (i % 3) * 5, cost));
+        }
+    }
+}
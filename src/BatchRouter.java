@@ -0,0 +1,170 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// GUI 없이 출발지/도착지 쌍을 대량으로 계산하는 배치 모드
+//
+//   java Main --batch [--input pairs.csv] [--output out.csv] [--format csv|json] [--threads N] [--no-mudang]
+//
+// 입력은 한 줄에 "출발지,도착지" (파일이 없으면 표준 입력), 출력은 입력과 같은 순서로 한 줄씩 쓴다
+// 동시에 처리 중인 줄은 스레드 수 * WINDOW_PER_THREAD 개로 제한되므로 입력 크기와 상관없이 메모리가 일정하다
+public final class BatchRouter {
+    private static final int WINDOW_PER_THREAD = 64;
+
+    private final CompactGraph graph;
+    private final NodeNameIndex names;
+    private final boolean includeMudang;
+    private final boolean json;
+
+    BatchRouter(CompactGraph graph, boolean includeMudang, boolean json) {
+        this.graph = graph;
+        this.includeMudang = includeMudang;
+        this.json = json;
+        this.names = graph.nameIndex();
+    }
+
+    public static void run(GraphManager graphManager, String[] args) throws IOException {
+        String input = Main.optionValue(args, "--input");
+        String output = Main.optionValue(args, "--output");
+        String format = Main.optionValue(args, "--format");
+        String threadOption = Main.optionValue(args, "--threads");
+        int threads = threadOption != null ? Integer.parseInt(threadOption) : Runtime.getRuntime().availableProcessors();
+        boolean includeMudang = !Main.hasFlag(args, "--no-mudang");
+
+        BatchRouter router = new BatchRouter(graphManager.getCompactGraph(), includeMudang, "json".equals(format));
+        try (BufferedReader reader = input != null
+                ? Files.newBufferedReader(Paths.get(input), StandardCharsets.UTF_8)
+                : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+             Writer writer = output != null
+                ? Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            router.process(reader, writer, threads);
+        }
+    }
+
+    // 읽기 -> 병렬 계산 -> 순서대로 쓰기를 흘려보낸다
+    void process(BufferedReader reader, Writer writer, int threads) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "batch-router");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int window = threads * WINDOW_PER_THREAD;
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>(window);
+        try {
+            if (!json) {
+                writer.write("start,end,distance,mudangCount,roadCount\n");
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty() || line.startsWith("#")) continue;
+                String pair = line;
+                pending.add(executor.submit(() -> routeLine(pair)));
+                if (pending.size() >= window) {
+                    writer.write(await(pending.poll()));
+                }
+            }
+            while (!pending.isEmpty()) {
+                writer.write(await(pending.poll()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String await(Future<String> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("배치 처리가 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("경로 계산 실패", e.getCause());
+        }
+    }
+
+    // 한 줄을 계산해 출력 형식의 문자열로 반환 (줄바꿈 포함)
+    String routeLine(String line) {
+        String[] pair = splitPair(line);
+        if (pair == null) {
+            return error(line, "", "알 수 없는 노드");
+        }
+        int source = names.idOf(pair[0]);
+        int target = names.idOf(pair[1]);
+        List<PathSegment> path = DijkstraEngine.route(graph, source, target, includeMudang);
+        if (path.isEmpty() && source != target) {
+            return error(pair[0], pair[1], "경로 없음");
+        }
+        PathInfo info = PathInfo.fromPath(graph.node(source), graph.node(target), path);
+        if (json) {
+            return "{\"start\":" + jsonString(pair[0]) + ",\"end\":" + jsonString(pair[1])
+                    + ",\"distance\":" + info.totalDistance + ",\"mudangCount\":" + info.mudangCount
+                    + ",\"roadCount\":" + info.roadCount + "}\n";
+        }
+        return csvField(pair[0]) + ',' + csvField(pair[1]) + ',' + info.totalDistance + ','
+                + info.mudangCount + ',' + info.roadCount + '\n';
+    }
+
+    private String error(String start, String end, String message) {
+        if (json) {
+            return "{\"start\":" + jsonString(start) + ",\"end\":" + jsonString(end) + ",\"error\":" + jsonString(message) + "}\n";
+        }
+        return csvField(start) + ',' + csvField(end) + ",-1,-1,-1\n";
+    }
+
+    // "출발지,도착지" 분리: 따옴표로 감싼 필드, 탭 구분, 이름에 쉼표가 있는 경우("1,2긱")를 모두 허용
+    String[] splitPair(String line) {
+        line = line.trim();
+        if (line.startsWith("\"")) {
+            int close = line.indexOf('"', 1);
+            int comma = line.indexOf(',', close);
+            if (close > 0 && comma > 0) {
+                return known(line.substring(1, close), unquote(line.substring(comma + 1).trim()));
+            }
+        }
+        int tab = line.indexOf('\t');
+        if (tab >= 0) {
+            return known(line.substring(0, tab).trim(), line.substring(tab + 1).trim());
+        }
+        for (int i = line.indexOf(','); i >= 0; i = line.indexOf(',', i + 1)) {
+            String[] pair = known(line.substring(0, i).trim(), unquote(line.substring(i + 1).trim()));
+            if (pair != null) return pair;
+        }
+        return null;
+    }
+
+    private String[] known(String start, String end) {
+        return names.idOf(start) >= 0 && names.idOf(end) >= 0 ? new String[]{start, end} : null;
+    }
+
+    private static String unquote(String field) {
+        return field.length() >= 2 && field.startsWith("\"") && field.endsWith("\"") ? field.substring(1, field.length() - 1) : field;
+    }
+
+    private static String csvField(String value) {
+        return value.indexOf(',') >= 0 || value.indexOf('"') >= 0 ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+
+    static String jsonString(String value) {
+        StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') out.append('\\').append(c);
+            else if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+            else out.append(c);
+        }
+        return out.append('"').toString();
+    }
+}
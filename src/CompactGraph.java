@@ -0,0 +1,283 @@
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+// 노드/엣지/무당 리스트를 정수 인덱스 기반 CSR(compressed sparse row) 배열로 압축한 불변 그래프
+// 보도는 양방향, 무당은 단방향이므로 오프셋 배열을 따로 둔다
+public final class CompactGraph {
+    // 인덱스 -> 노드 (null이면 파일에서 연 그래프라 nodeSource로 필요할 때 만든다)
+    private final Node[] nodes;
+    private final IntFunction<Node> nodeSource;
+    // 힙 밖 그래프에서 복사한 그래프면 그 원본 (이름 색인이 원본의 정렬 순서를 같이 쓴다)
+    private final OffHeapGraph source;
+
+    // 지도 좌표 (A* 휴리스틱용)
+    final int[] x;
+    final int[] y;
+
+    // 보도: walkOffsets[v] ~ walkOffsets[v + 1] 구간이 v의 이웃
+    final int[] walkOffsets;
+    final int[] walkTargets;
+    final int[] walkWeights;
+
+    // 무당: mudangOffsets[v] ~ mudangOffsets[v + 1] 구간이 v에서 출발하는 무당 경로
+    final int[] mudangOffsets;
+    final int[] mudangTargets;
+    final int[] mudangWeights;
+    final int[] mudangIds;     // arc -> 무당 리스트에서의 번호 (시간표 등 구간별 정보 조회용)
+
+    // 역방향 무당: mudangInOffsets[v] ~ mudangInOffsets[v + 1] 구간이 v로 들어오는 무당 경로
+    // mudangInArcs는 정방향 arc 번호 (가중치는 mudangWeights에서 읽는다)
+    final int[] mudangInOffsets;
+    final int[] mudangInSources;
+    final int[] mudangInArcs;
+
+    // 엣지 비용 / 두 끝점 사이 직선 거리(픽셀)의 최솟값: 이 값 * 직선 거리는 실제 비용을 넘지 않는다
+    private final double walkCostPerPixel;
+    private final double mudangCostPerPixel;
+
+    // id가 곧 인덱스가 아닌 노드만 (대부분 비어 있다)
+    private final Map<Node, Integer> index;
+
+    private CompactGraph(Node[] nodes, IntFunction<Node> nodeSource, OffHeapGraph source, Map<Node, Integer> index, int[] x, int[] y,
+                         int[] walkOffsets, int[] walkTargets, int[] walkWeights,
+                         int[] mudangOffsets, int[] mudangTargets, int[] mudangWeights, int[] mudangIds) {
+        this.nodes = nodes;
+        this.nodeSource = nodeSource;
+        this.source = source;
+        this.index = index;
+        this.x = x;
+        this.y = y;
+        this.walkOffsets = walkOffsets;
+        this.walkTargets = walkTargets;
+        this.walkWeights = walkWeights;
+        this.mudangOffsets = mudangOffsets;
+        this.mudangTargets = mudangTargets;
+        this.mudangWeights = mudangWeights;
+        this.mudangIds = mudangIds;
+
+        int n = x.length;
+        mudangInOffsets = new int[n + 1];
+        for (int target : mudangTargets) {
+            mudangInOffsets[target + 1]++;
+        }
+        prefixSum(mudangInOffsets);
+        mudangInSources = new int[mudangTargets.length];
+        mudangInArcs = new int[mudangTargets.length];
+        int[] cursor = mudangInOffsets.clone();
+        for (int u = 0; u < n; u++) {
+            for (int i = mudangOffsets[u]; i < mudangOffsets[u + 1]; i++) {
+                int slot = cursor[mudangTargets[i]]++;
+                mudangInSources[slot] = u;
+                mudangInArcs[slot] = i;
+            }
+        }
+
+        walkCostPerPixel = minCostPerPixel(walkOffsets, walkTargets, walkWeights);
+        mudangCostPerPixel = minCostPerPixel(mudangOffsets, mudangTargets, mudangWeights);
+    }
+
+    // 노드 리스트 순서를 인덱스로 사용, 리스트에 없는 엣지 끝점은 뒤에 이어 붙인다
+    // id가 리스트 위치와 같은 노드(GraphManager의 노드)는 map에 넣지 않고 id를 그대로 인덱스로 쓴다
+    public static CompactGraph build(List<Node> nodeList, List<Edge> edges, List<Mudang> mudangs) {
+        Map<Node, Integer> index = new IdentityHashMap<>();
+        List<Node> ordered = new ArrayList<>(nodeList.size());
+        for (Node node : nodeList) {
+            register(node, index, ordered);
+        }
+        for (Edge edge : edges) {
+            register(edge.getStart(), index, ordered);
+            register(edge.getEnd(), index, ordered);
+        }
+        for (Mudang mudang : mudangs) {
+            register(mudang.getStart(), index, ordered);
+            register(mudang.getEnd(), index, ordered);
+        }
+        int n = ordered.size();
+        int[] x = new int[n];
+        int[] y = new int[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = ordered.get(i).x;
+            y[i] = ordered.get(i).y;
+        }
+
+        // 보도 CSR (양방향이므로 엣지 하나당 두 칸)
+        int[] walkOffsets = new int[n + 1];
+        for (Edge edge : edges) {
+            walkOffsets[position(ordered, index, edge.getStart()) + 1]++;
+            walkOffsets[position(ordered, index, edge.getEnd()) + 1]++;
+        }
+        prefixSum(walkOffsets);
+        int[] walkTargets = new int[walkOffsets[n]];
+        int[] walkWeights = new int[walkOffsets[n]];
+        int[] cursor = walkOffsets.clone();
+        for (Edge edge : edges) {
+            int u = position(ordered, index, edge.getStart());
+            int v = position(ordered, index, edge.getEnd());
+            walkTargets[cursor[u]] = v;
+            walkWeights[cursor[u]++] = edge.getWeight();
+            walkTargets[cursor[v]] = u;
+            walkWeights[cursor[v]++] = edge.getWeight();
+        }
+
+        // 무당 CSR (단방향)
+        int[] mudangOffsets = new int[n + 1];
+        for (Mudang mudang : mudangs) {
+            mudangOffsets[position(ordered, index, mudang.getStart()) + 1]++;
+        }
+        prefixSum(mudangOffsets);
+        int[] mudangTargets = new int[mudangOffsets[n]];
+        int[] mudangWeights = new int[mudangOffsets[n]];
+        int[] mudangIds = new int[mudangOffsets[n]];
+        cursor = mudangOffsets.clone();
+        for (int id = 0; id < mudangs.size(); id++) {
+            Mudang mudang = mudangs.get(id);
+            int u = position(ordered, index, mudang.getStart());
+            mudangTargets[cursor[u]] = position(ordered, index, mudang.getEnd());
+            mudangIds[cursor[u]] = id;
+            mudangWeights[cursor[u]++] = mudang.getWeight();
+        }
+
+        return new CompactGraph(ordered.toArray(new Node[0]), null, null, index, x, y,
+                walkOffsets, walkTargets, walkWeights,
+                mudangOffsets, mudangTargets, mudangWeights, mudangIds);
+    }
+
+    // 힙 밖 그래프의 배열을 힙 배열로 복사 (Node 객체는 만들지 않고 node(i)가 nodeSource로 그때그때 만든다)
+    // 무당 번호는 힙 밖 그래프의 arc 순서(출발 노드 순)
+    static CompactGraph of(OffHeapGraph graph, IntFunction<Node> nodeSource) {
+        int n = graph.nodeCount();
+        int[] x = new int[n];
+        int[] y = new int[n];
+        int[] walkOffsets = new int[n + 1];
+        int[] mudangOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            x[v] = graph.x(v);
+            y[v] = graph.y(v);
+            walkOffsets[v + 1] = graph.walkEnd(v);
+            mudangOffsets[v + 1] = graph.mudangEnd(v);
+        }
+        int[] walkTargets = new int[walkOffsets[n]];
+        int[] walkWeights = new int[walkOffsets[n]];
+        for (int i = 0; i < walkTargets.length; i++) {
+            walkTargets[i] = graph.walkTarget(i);
+            walkWeights[i] = graph.walkWeight(i);
+        }
+        int[] mudangTargets = new int[mudangOffsets[n]];
+        int[] mudangWeights = new int[mudangOffsets[n]];
+        int[] mudangIds = new int[mudangOffsets[n]];
+        for (int i = 0; i < mudangTargets.length; i++) {
+            mudangTargets[i] = graph.mudangTarget(i);
+            mudangWeights[i] = graph.mudangWeight(i);
+            mudangIds[i] = i;
+        }
+        return new CompactGraph(null, nodeSource, graph, Collections.emptyMap(), x, y,
+                walkOffsets, walkTargets, walkWeights,
+                mudangOffsets, mudangTargets, mudangWeights, mudangIds);
+    }
+
+    private static void register(Node node, Map<Node, Integer> index, List<Node> ordered) {
+        if (isAtId(ordered, node) || index.containsKey(node)) return;
+        if (node.id != ordered.size()) index.put(node, ordered.size());
+        ordered.add(node);
+    }
+
+    private static boolean isAtId(List<Node> ordered, Node node) {
+        return node.id >= 0 && node.id < ordered.size() && ordered.get(node.id) == node;
+    }
+
+    private static int position(List<Node> ordered, Map<Node, Integer> index, Node node) {
+        return isAtId(ordered, node) ? node.id : index.get(node);
+    }
+
+    private static void prefixSum(int[] offsets) {
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+    }
+
+    private double minCostPerPixel(int[] offsets, int[] targets, int[] weights) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int u = 0; u + 1 < offsets.length; u++) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                double length = pixelDistance(u, targets[i]);
+                if (length > 0) {
+                    min = Math.min(min, weights[i] / length);
+                }
+            }
+        }
+        return min;
+    }
+
+    public int nodeCount() {
+        return x.length;
+    }
+
+    // node에서 나가는 arc 수 (useMudang이면 무당 포함)
+    int outDegree(int node, boolean useMudang) {
+        int degree = walkOffsets[node + 1] - walkOffsets[node];
+        return useMudang ? degree + mudangOffsets[node + 1] - mudangOffsets[node] : degree;
+    }
+
+    // node로 들어오는 arc 수 (보도는 양방향이라 나가는 수와 같다)
+    int inDegree(int node, boolean useMudang) {
+        int degree = walkOffsets[node + 1] - walkOffsets[node];
+        return useMudang ? degree + mudangInOffsets[node + 1] - mudangInOffsets[node] : degree;
+    }
+
+    // 그래프에 없는 노드면 -1
+    public int indexOf(Node node) {
+        if (nodes == null) return isSourceNode(node) ? node.id : -1;
+        if (node.id >= 0 && node.id < nodes.length && nodes[node.id] == node) return node.id;
+        Integer i = index.get(node);
+        return i == null ? -1 : i;
+    }
+
+    // 파일에서 연 그래프는 노드 객체가 매번 새로 만들어지므로, id 자리의 좌표가 같으면 같은 노드로 본다
+    // (이름까지 비교하면 조회할 때마다 힙 밖 바이트를 디코딩해야 한다, 다른 그래프의 노드는 id -1이라 걸리지 않는다)
+    private boolean isSourceNode(Node node) {
+        return node.id >= 0 && node.id < x.length && x[node.id] == node.x && y[node.id] == node.y;
+    }
+
+    public Node node(int i) {
+        return nodes != null ? nodes[i] : nodeSource.apply(i);
+    }
+
+    // 인덱스로 찾는 이름 색인 (힙 밖 그래프에서 복사했으면 이름을 힙에 모으지 않는 색인)
+    NodeNameIndex nameIndex() {
+        return source != null ? NodeNameIndex.of(source, nodeSource) : new NodeNameIndex(nodeList());
+    }
+
+    // 인덱스 순서의 노드 목록 (읽기 전용, 파일에서 연 그래프면 읽을 때마다 만드는 뷰)
+    List<Node> nodeList() {
+        if (nodes != null) return Collections.unmodifiableList(Arrays.asList(nodes));
+        return new AbstractList<Node>() {
+            @Override
+            public Node get(int i) {
+                return nodeSource.apply(i);
+            }
+
+            @Override
+            public int size() {
+                return x.length;
+            }
+        };
+    }
+
+    double pixelDistance(int u, int v) {
+        double dx = x[u] - x[v];
+        double dy = y[u] - y[v];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    // 휴리스틱에 쓰는 픽셀당 비용 (엣지가 없으면 0 = 휴리스틱 없음)
+    double costPerPixel(boolean useMudang) {
+        double ratio = useMudang ? Math.min(walkCostPerPixel, mudangCostPerPixel) : walkCostPerPixel;
+        return Double.isInfinite(ratio) ? 0 : ratio;
+    }
+}
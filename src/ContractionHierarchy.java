@@ -0,0 +1,459 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Contraction Hierarchies: 중요도가 낮은 노드부터 차례로 없애며(contract) 지름길(shortcut)을 추가해 두고,
+// 질의는 출발지/도착지에서 순위가 높아지는 방향으로만 양방향 탐색한다
+// 전처리 결과는 파일로 저장해 다음 실행 때 다시 계산하지 않는다
+public final class ContractionHierarchy {
+    private static final int MAGIC = 0x4E564348; // "NVCH"
+    private static final int FORMAT_VERSION = 1;
+
+    // arc 종류 (지름길은 두 개의 하위 arc로 풀린다)
+    static final int KIND_WALK = 0;
+    static final int KIND_MUDANG = 1;
+    static final int KIND_SHORTCUT = 2;
+
+    // 증인(witness) 탐색에서 확정할 최대 노드 수 (넘으면 지름길을 그냥 추가한다)
+    // 우선순위 계산은 추정이면 충분하므로 더 작게 잡는다
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+    private static final int ESTIMATE_SETTLE_LIMIT = 50;
+
+    private final CompactGraph graph;
+    private final boolean includeMudang;
+    private final long fingerprint;
+    private final int[] rank;
+
+    // arc 목록 (원래 엣지 + 지름길)
+    private final int[] arcFrom;
+    private final int[] arcTo;
+    private final int[] arcWeight;
+    private final int[] arcKind;
+    private final int[] arcFirst;   // 지름길이면 앞쪽 하위 arc, 아니면 -1
+    private final int[] arcSecond;  // 지름길이면 뒤쪽 하위 arc, 아니면 -1
+
+    // 정방향: v에서 순위가 더 높은 노드로 나가는 arc / 역방향: 순위가 더 높은 노드에서 v로 들어오는 arc
+    private final int[] upOffsets;
+    private final int[] upArcs;
+    private final int[] downOffsets;
+    private final int[] downArcs;
+
+    private ContractionHierarchy(CompactGraph graph, boolean includeMudang, long fingerprint, int[] rank,
+                                 int[] arcFrom, int[] arcTo, int[] arcWeight, int[] arcKind, int[] arcFirst, int[] arcSecond) {
+        this.graph = graph;
+        this.includeMudang = includeMudang;
+        this.fingerprint = fingerprint;
+        this.rank = rank;
+        this.arcFrom = arcFrom;
+        this.arcTo = arcTo;
+        this.arcWeight = arcWeight;
+        this.arcKind = arcKind;
+        this.arcFirst = arcFirst;
+        this.arcSecond = arcSecond;
+
+        int n = rank.length;
+        upOffsets = new int[n + 1];
+        downOffsets = new int[n + 1];
+        for (int a = 0; a < arcFrom.length; a++) {
+            if (rank[arcTo[a]] > rank[arcFrom[a]]) upOffsets[arcFrom[a] + 1]++;
+            else downOffsets[arcTo[a] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            upOffsets[v + 1] += upOffsets[v];
+            downOffsets[v + 1] += downOffsets[v];
+        }
+        upArcs = new int[upOffsets[n]];
+        downArcs = new int[downOffsets[n]];
+        int[] upCursor = upOffsets.clone();
+        int[] downCursor = downOffsets.clone();
+        for (int a = 0; a < arcFrom.length; a++) {
+            if (rank[arcTo[a]] > rank[arcFrom[a]]) upArcs[upCursor[arcFrom[a]]++] = a;
+            else downArcs[downCursor[arcTo[a]]++] = a;
+        }
+    }
+
+    // 전처리: 우선순위(추가될 지름길 수 - 없어질 arc 수 + 이미 없어진 이웃 수)가 낮은 노드부터 contract
+    public static ContractionHierarchy build(CompactGraph graph, boolean includeMudang) {
+        return new Builder(graph, includeMudang).run();
+    }
+
+    // 저장된 파일이 같은 그래프로 만든 것이면 읽고, 아니면 새로 만들어 저장
+    public static ContractionHierarchy loadOrBuild(CompactGraph graph, boolean includeMudang, Path file) {
+        if (Files.exists(file)) {
+            try {
+                ContractionHierarchy loaded = load(graph, file);
+                if (loaded != null && loaded.includeMudang == includeMudang) {
+                    return loaded;
+                }
+            } catch (IOException e) {
+                System.out.println("CH 파일을 읽지 못해 다시 계산합니다: " + e.getMessage());
+            }
+        }
+        ContractionHierarchy built = build(graph, includeMudang);
+        try {
+            built.save(file);
+        } catch (IOException e) {
+            System.out.println("CH 파일 저장 실패: " + e.getMessage());
+        }
+        return built;
+    }
+
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeBoolean(includeMudang);
+            out.writeLong(fingerprint);
+            out.writeInt(rank.length);
+            for (int r : rank) out.writeInt(r);
+            out.writeInt(arcFrom.length);
+            for (int a = 0; a < arcFrom.length; a++) {
+                out.writeInt(arcFrom[a]);
+                out.writeInt(arcTo[a]);
+                out.writeInt(arcWeight[a]);
+                out.writeInt(arcKind[a]);
+                out.writeInt(arcFirst[a]);
+                out.writeInt(arcSecond[a]);
+            }
+        }
+    }
+
+    // 다른 그래프(또는 다른 형식 버전)로 만든 파일이면 null
+    public static ContractionHierarchy load(CompactGraph graph, Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            boolean includeMudang = in.readBoolean();
+            long fingerprint = in.readLong();
+            if (fingerprint != fingerprint(graph, includeMudang)) {
+                return null;
+            }
+            int[] rank = new int[in.readInt()];
+            for (int v = 0; v < rank.length; v++) rank[v] = in.readInt();
+            int m = in.readInt();
+            int[] from = new int[m], to = new int[m], weight = new int[m], kind = new int[m], first = new int[m], second = new int[m];
+            for (int a = 0; a < m; a++) {
+                from[a] = in.readInt();
+                to[a] = in.readInt();
+                weight[a] = in.readInt();
+                kind[a] = in.readInt();
+                first[a] = in.readInt();
+                second[a] = in.readInt();
+            }
+            return new ContractionHierarchy(graph, includeMudang, fingerprint, rank, from, to, weight, kind, first, second);
+        }
+    }
+
+    // 그래프 구조와 가중치로 만든 해시 (저장된 CH가 현재 그래프와 맞는지 확인용)
+    static long fingerprint(CompactGraph graph, boolean includeMudang) {
+        long h = graph.nodeCount();
+        h = h * 31 + Arrays.hashCode(graph.walkOffsets);
+        h = h * 31 + Arrays.hashCode(graph.walkTargets);
+        h = h * 31 + Arrays.hashCode(graph.walkWeights);
+        if (includeMudang) {
+            h = h * 31 + Arrays.hashCode(graph.mudangOffsets);
+            h = h * 31 + Arrays.hashCode(graph.mudangTargets);
+            h = h * 31 + Arrays.hashCode(graph.mudangWeights);
+        }
+        return h;
+    }
+
+    public boolean includesMudang() {
+        return includeMudang;
+    }
+
+    // 만들 때 쓴 그래프 (노드 인덱스는 이 그래프 기준)
+    CompactGraph graph() {
+        return graph;
+    }
+
+    public int arcCount() {
+        return arcFrom.length;
+    }
+
+    // 최단 경로 (지름길을 원래 구간으로 풀어서 반환, 경로가 없으면 빈 목록)
+    public List<PathSegment> route(int source, int target) {
+        if (source == target) {
+            return Collections.emptyList();
+        }
+        SearchWorkspace forward = SearchWorkspace.current(rank.length);
+        SearchWorkspace backward = SearchWorkspace.backward(rank.length);
+        int meet = search(source, target, forward, backward);
+        if (meet < 0) {
+            return Collections.emptyList();
+        }
+
+        List<PathSegment> path = new ArrayList<>();
+        List<Integer> upwardArcs = new ArrayList<>();
+        for (int step = meet; forward.parent[step] >= 0; step = forward.parent[step]) {
+            upwardArcs.add(forward.parentArc[step]);
+        }
+        for (int i = upwardArcs.size() - 1; i >= 0; i--) {
+            unpack(upwardArcs.get(i), path);
+        }
+        for (int step = meet; backward.parent[step] >= 0; step = backward.parent[step]) {
+            unpack(backward.parentArc[step], path);
+        }
+        return path;
+    }
+
+    // 최단 거리 (도달 불가면 Integer.MAX_VALUE)
+    public int distance(int source, int target) {
+        if (source == target) return 0;
+        SearchWorkspace forward = SearchWorkspace.current(rank.length);
+        SearchWorkspace backward = SearchWorkspace.backward(rank.length);
+        int meet = search(source, target, forward, backward);
+        return meet < 0 ? Integer.MAX_VALUE : forward.distanceOf(meet) + backward.distanceOf(meet);
+    }
+
+    // 위쪽으로만 양방향 탐색, 두 힙의 최솟값이 모두 현재 최단 거리 이상이면 멈춘다
+    private int search(int source, int target, SearchWorkspace forward, SearchWorkspace backward) {
+        forward.update(source, 0, -1, SearchWorkspace.NO_ARC);
+        forward.heap.insertOrDecrease(source, 0);
+        backward.update(target, 0, -1, SearchWorkspace.NO_ARC);
+        backward.heap.insertOrDecrease(target, 0);
+        int best = Integer.MAX_VALUE;
+        int meet = -1;
+
+        while (!forward.heap.isEmpty() || !backward.heap.isEmpty()) {
+            boolean forwardTurn = !forward.heap.isEmpty()
+                    && (backward.heap.isEmpty() || forward.heap.peekKey() <= backward.heap.peekKey());
+            SearchWorkspace side = forwardTurn ? forward : backward;
+            SearchWorkspace other = forwardTurn ? backward : forward;
+            if (side.heap.peekKey() >= best) break;
+
+            int current = side.heap.poll();
+            side.settle(current);
+            int base = side.distance[current];
+            if (other.isReached(current) && base + other.distanceOf(current) < best) {
+                best = base + other.distanceOf(current);
+                meet = current;
+            }
+
+            if (stalled(current, base, side, forwardTurn)) continue;
+
+            int[] offsets = forwardTurn ? upOffsets : downOffsets;
+            int[] arcs = forwardTurn ? upArcs : downArcs;
+            side.scannedArcs += offsets[current + 1] - offsets[current];
+            for (int i = offsets[current], end = offsets[current + 1]; i < end; i++) {
+                int arc = arcs[i];
+                int neighbor = forwardTurn ? arcTo[arc] : arcFrom[arc];
+                if (side.isSettled(neighbor)) continue;
+                int newDistance = base + arcWeight[arc];
+                if (newDistance < side.distanceOf(neighbor)) {
+                    side.update(neighbor, newDistance, current, arc);
+                    side.heap.insertOrDecrease(neighbor, newDistance);
+                }
+            }
+        }
+        forward.finish(SearchStats.Kind.CONTRACTION_HIERARCHY, backward);
+        return meet;
+    }
+
+    // stall-on-demand: 순위가 더 높은 노드를 거쳐 더 짧게 올 수 있다면 이 노드에서는 더 뻗지 않는다
+    private boolean stalled(int node, int base, SearchWorkspace side, boolean forwardTurn) {
+        int[] offsets = forwardTurn ? downOffsets : upOffsets;
+        int[] arcs = forwardTurn ? downArcs : upArcs;
+        for (int i = offsets[node], end = offsets[node + 1]; i < end; i++) {
+            int arc = arcs[i];
+            int higher = forwardTurn ? arcFrom[arc] : arcTo[arc];
+            int viaHigher = side.distanceOf(higher);
+            if (viaHigher != Integer.MAX_VALUE && viaHigher + arcWeight[arc] < base) return true;
+        }
+        return false;
+    }
+
+    // 지름길을 원래 보도/무당 구간으로 재귀적으로 푼다
+    private void unpack(int arc, List<PathSegment> path) {
+        if (arcKind[arc] == KIND_SHORTCUT) {
+            unpack(arcFirst[arc], path);
+            unpack(arcSecond[arc], path);
+        } else {
+            path.add(new PathSegment(graph.node(arcFrom[arc]), graph.node(arcTo[arc]),
+                    arcKind[arc] == KIND_MUDANG, arcWeight[arc]));
+        }
+    }
+
+    // 전처리 중에만 쓰는 가변 그래프
+    private static final class Builder {
+        private final CompactGraph graph;
+        private final boolean includeMudang;
+        private final int n;
+
+        private final IntList from = new IntList();
+        private final IntList to = new IntList();
+        private final IntList weight = new IntList();
+        private final IntList kind = new IntList();
+        private final IntList first = new IntList();
+        private final IntList second = new IntList();
+        private final IntList[] out;
+        private final IntList[] in;
+
+        private final boolean[] contracted;
+        private final int[] deletedNeighbors;
+        private final SearchWorkspace witness = new SearchWorkspace();
+
+        Builder(CompactGraph graph, boolean includeMudang) {
+            this.graph = graph;
+            this.includeMudang = includeMudang;
+            this.n = graph.nodeCount();
+            out = new IntList[n];
+            in = new IntList[n];
+            for (int v = 0; v < n; v++) {
+                out[v] = new IntList();
+                in[v] = new IntList();
+            }
+            contracted = new boolean[n];
+            deletedNeighbors = new int[n];
+
+            for (int u = 0; u < n; u++) {
+                for (int i = graph.walkOffsets[u]; i < graph.walkOffsets[u + 1]; i++) {
+                    addArc(u, graph.walkTargets[i], graph.walkWeights[i], KIND_WALK, -1, -1);
+                }
+                if (!includeMudang) continue;
+                for (int i = graph.mudangOffsets[u]; i < graph.mudangOffsets[u + 1]; i++) {
+                    addArc(u, graph.mudangTargets[i], graph.mudangWeights[i], KIND_MUDANG, -1, -1);
+                }
+            }
+        }
+
+        private void addArc(int u, int v, int w, int k, int a, int b) {
+            if (u == v) return;
+            int arc = from.size;
+            from.add(u);
+            to.add(v);
+            weight.add(w);
+            kind.add(k);
+            first.add(a);
+            second.add(b);
+            out[u].add(arc);
+            in[v].add(arc);
+        }
+
+        ContractionHierarchy run() {
+            IndexedMinHeap queue = new IndexedMinHeap();
+            queue.ensureCapacity(n);
+            for (int v = 0; v < n; v++) {
+                queue.insertOrDecrease(v, priority(v));
+            }
+
+            int[] rank = new int[n];
+            int order = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                // 지연 갱신: 다시 계산한 우선순위가 다음 후보보다 나빠졌으면 되돌려 넣는다
+                int current = priority(v);
+                if (!queue.isEmpty() && current > queue.peekKey()) {
+                    queue.insertOrDecrease(v, current);
+                    continue;
+                }
+                prune(v);
+                contract(v, true);
+                contracted[v] = true;
+                rank[v] = order++;
+                for (int i = 0; i < out[v].size; i++) deletedNeighbors[to.data[out[v].data[i]]]++;
+                for (int i = 0; i < in[v].size; i++) deletedNeighbors[from.data[in[v].data[i]]]++;
+            }
+
+            return new ContractionHierarchy(graph, includeMudang, fingerprint(graph, includeMudang), rank,
+                    from.toArray(), to.toArray(), weight.toArray(), kind.toArray(), first.toArray(), second.toArray());
+        }
+
+        private int priority(int v) {
+            prune(v);
+            return contract(v, false) - out[v].size - in[v].size + deletedNeighbors[v];
+        }
+
+        // 이미 없앤 이웃으로 가는 arc를 목록에서 지운다
+        private void prune(int v) {
+            IntList outs = out[v];
+            int kept = 0;
+            for (int i = 0; i < outs.size; i++) {
+                if (!contracted[to.data[outs.data[i]]]) outs.data[kept++] = outs.data[i];
+            }
+            outs.size = kept;
+            IntList ins = in[v];
+            kept = 0;
+            for (int i = 0; i < ins.size; i++) {
+                if (!contracted[from.data[ins.data[i]]]) ins.data[kept++] = ins.data[i];
+            }
+            ins.size = kept;
+        }
+
+        // v를 없앨 때 필요한 지름길 수 (apply면 실제로 추가)
+        private int contract(int v, boolean apply) {
+            int shortcuts = 0;
+            for (int i = 0; i < in[v].size; i++) {
+                int inArc = in[v].data[i];
+                int u = from.data[inArc];
+                if (contracted[u]) continue;
+
+                int maxOut = -1;
+                for (int j = 0; j < out[v].size; j++) {
+                    int x = to.data[out[v].data[j]];
+                    if (!contracted[x] && x != u) maxOut = Math.max(maxOut, weight.data[out[v].data[j]]);
+                }
+                if (maxOut < 0) continue;
+                witnessSearch(u, v, weight.data[inArc] + maxOut, apply ? WITNESS_SETTLE_LIMIT : ESTIMATE_SETTLE_LIMIT);
+
+                int outCount = out[v].size;
+                for (int j = 0; j < outCount; j++) {
+                    int outArc = out[v].data[j];
+                    int x = to.data[outArc];
+                    if (contracted[x] || x == u) continue;
+                    int viaV = weight.data[inArc] + weight.data[outArc];
+                    if (witness.distanceOf(x) <= viaV) continue;
+                    shortcuts++;
+                    if (apply) addArc(u, x, viaV, KIND_SHORTCUT, inArc, outArc);
+                }
+            }
+            return shortcuts;
+        }
+
+        // v를 거치지 않고 u에서 limit 이하로 갈 수 있는 곳을 찾는 제한된 Dijkstra
+        private void witnessSearch(int u, int v, int limit, int settleLimit) {
+            witness.begin(n);
+            witness.update(u, 0, -1, SearchWorkspace.NO_ARC);
+            witness.heap.insertOrDecrease(u, 0);
+            while (!witness.heap.isEmpty() && witness.settledCount < settleLimit) {
+                if (witness.heap.peekKey() > limit) break;
+                int current = witness.heap.poll();
+                witness.settle(current);
+                int base = witness.distance[current];
+                for (int i = 0; i < out[current].size; i++) {
+                    int arc = out[current].data[i];
+                    int x = to.data[arc];
+                    if (x == v || contracted[x] || witness.isSettled(x)) continue;
+                    int newDistance = base + weight.data[arc];
+                    if (newDistance < witness.distanceOf(x)) {
+                        witness.update(x, newDistance, current, arc);
+                        witness.heap.insertOrDecrease(x, newDistance);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class IntList {
+        int[] data = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
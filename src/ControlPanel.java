@@ -2,26 +2,65 @@ import javax.swing.*;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 
 public class ControlPanel extends JPanel {
-    public ControlPanel(List<Node> nodes, MapPanel mapPanel, List<Edge> edges, List<Mudang> mudangs) {
+    // 경로 캐시에 보관할 최대 (출발지, 도착지) 조합 수
+    private static final int ROUTE_CACHE_SIZE = 256;
+    // 지도에 함께 그릴 우회 경로 수와, 최단 경로와 겹쳐도 되는 비용 비율
+    private static final int DETOUR_COUNT = 2;
+    private static final double DETOUR_MAX_SIMILARITY = 0.7;
+    // 도달 범위로 칠할 비용 예산들 (한 번의 탐색으로 모두 구한다)
+    private static final int[] ISOCHRONE_BUDGETS = {3, 6, 9};
+    // 파일에서 연 지도의 콤보 박스 너비 기준 (항목 수백만 개의 이름 너비를 다 재지 않도록)
+    private static final String COMBO_PROTOTYPE = "가나다라마바사아자차";
+
+    // 경로 탐색을 EDT 밖에서 수행 (같은 종류의 새 요청이 이전 요청을 취소한다)
+    private final RoutingService routingService;
+    // 화면에 반영할 마지막 요청 (EDT에서만 접근)
+    private CompletableFuture<PathInfo> pendingRoute;
+    private CompletableFuture<RouteExtras> pendingExtras;
+    private CompletableFuture<Isochrone> pendingIsochrone;
+    // 탐색 중 표시
+    private final JProgressBar progressBar = new JProgressBar();
+    // 마지막 경로의 Pareto 대안들 (거리, 무당 탑승 횟수, 도보 거리), EDT에서만 접근
+    private final JComboBox<String> alternativesComboBox = new JComboBox<>();
+    private List<PathInfo> alternatives = new ArrayList<>();
+    private boolean updatingAlternatives;
+    // 디버그: 켜져 있으면 경로를 찾을 때 Dijkstra가 확정한 노드를 지도에 점으로 표시
+    private final JToggleButton settledButton = new JToggleButton("탐색 노드 표시");
+    // 경로표에 못 들어가는 큰 지도 파일: 힙 배열이 필요한 부가 정보(탐색 방식 비교, 대안 경로)는 구하지 않는다
+    private final boolean largeFileMap;
+
+    public ControlPanel(GraphManager graphManager, MapPanel mapPanel) {
+        boolean fileMap = graphManager.getOffHeapGraph() != null;
+        largeFileMap = fileMap && graphManager.getNodes().size() > RouteTable.MAX_NODES;
+        RouteCache routeCache = new RouteCache(graphManager, ROUTE_CACHE_SIZE);
+        routingService = new RoutingService(routeCache);
         setLayout(new BorderLayout()); // BorderLayout으로 변경
 
         // 출발지, 도착지 선택 및 버튼 (하단 영역)
         JPanel bottomPanel = new JPanel(new FlowLayout());
-        JComboBox<String> startComboBox = new JComboBox<>();
-        JComboBox<String> endComboBox = new JComboBox<>();
+        JComboBox<String> startComboBox = new JComboBox<>(new NodeNameModel(graphManager));
+        JComboBox<String> endComboBox = new JComboBox<>(new NodeNameModel(graphManager));
         JButton findPathButton = new JButton("최단 경로 찾기");
         JToggleButton toggleButton = new JToggleButton("무당이 경로 표시");
+        JToggleButton isochroneButton = new JToggleButton("도달 범위 표시");
 
-        for (Node node : nodes) {
-            startComboBox.addItem(node.name);
-            endComboBox.addItem(node.name);
+        if (fileMap) {
+            startComboBox.setPrototypeDisplayValue(COMBO_PROTOTYPE);
+            endComboBox.setPrototypeDisplayValue(COMBO_PROTOTYPE);
         }
         
+        // 이름 앞부분이나 초성(예: ㅎㅅ -> 학생회관)을 이어 치면 그 노드로 이동
+        startComboBox.setKeySelectionManager(new NameTypeAhead(graphManager));
+        endComboBox.setKeySelectionManager(new NameTypeAhead(graphManager));
+
         // 출발지와 도착지 선택 시 강조 표시
-        startComboBox.addActionListener(e -> updateHighlightedNodes(startComboBox, endComboBox, nodes, mapPanel));
-        endComboBox.addActionListener(e -> updateHighlightedNodes(startComboBox, endComboBox, nodes, mapPanel));
+        startComboBox.addActionListener(e -> updateHighlightedNodes(startComboBox, endComboBox, graphManager, mapPanel));
+        endComboBox.addActionListener(e -> updateHighlightedNodes(startComboBox, endComboBox, graphManager, mapPanel));
 
         bottomPanel.add(new JLabel("출발지:"));
         bottomPanel.add(startComboBox);
@@ -29,6 +68,11 @@ public class ControlPanel extends JPanel {
         bottomPanel.add(endComboBox);
         bottomPanel.add(findPathButton);
         bottomPanel.add(toggleButton);
+        bottomPanel.add(isochroneButton);
+        bottomPanel.add(settledButton);
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(false);
+        bottomPanel.add(progressBar);
 
         // 경로 요약 정보와 세부 정보 (오른쪽 영역)
         JPanel rightPanel = new JPanel(new BorderLayout());
@@ -39,43 +83,80 @@ public class ControlPanel extends JPanel {
         rightPanel.add(pathSummaryLabel, BorderLayout.NORTH);
         rightPanel.add(new JScrollPane(pathDetailsLabel), BorderLayout.CENTER);
 
+        JPanel alternativesPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        alternativesPanel.add(new JLabel("대안 경로:"));
+        alternativesPanel.add(alternativesComboBox);
+        alternativesComboBox.setEnabled(false);
+        rightPanel.add(alternativesPanel, BorderLayout.SOUTH);
+
+        // 대안 선택 시 지도와 세부 정보를 그 경로로 바꾼다
+        alternativesComboBox.addActionListener(e -> {
+            int index = alternativesComboBox.getSelectedIndex();
+            if (updatingAlternatives || index < 0 || index >= alternatives.size()) return;
+            PathInfo alternative = alternatives.get(index);
+            mapPanel.setShortestPath(alternative.path);
+            pathSummaryLabel.setText(summaryText(alternative) + String.format(" | 대안 %d/%d", index + 1, alternatives.size()));
+            showDetails(alternative, pathDetailsLabel);
+        });
+
         // 무당 경로 토글 버튼 동작 정의
         toggleButton.addActionListener(e -> {
             boolean includeMudang = toggleButton.isSelected();
             toggleButton.setText(includeMudang ? "무당이 경로 끄기" : "무당이 경로 표시");
             mapPanel.setIncludeMudangPaths(includeMudang); // MapPanel에 상태 전달
+            if (isochroneButton.isSelected()) showIsochrone(graphManager, mapPanel, startComboBox, isochroneButton, includeMudang);
+        });
+
+        // 도달 범위 토글: 출발지에서 예산 안에 갈 수 있는 곳을 음영으로 표시 (무당 포함 여부는 무당이 경로 토글을 따른다)
+        isochroneButton.addActionListener(e -> {
+            if (isochroneButton.isSelected()) {
+                showIsochrone(graphManager, mapPanel, startComboBox, isochroneButton, toggleButton.isSelected());
+            } else {
+                routingService.cancel(RoutingService.Kind.OVERLAY);
+                pendingIsochrone = null;
+                mapPanel.setIsochrone(null, null);
+            }
+        });
+        // 끄면 바로 지우고, 켜면 다음 경로 탐색부터 표시한다
+        settledButton.addActionListener(e -> {
+            if (!settledButton.isSelected()) mapPanel.setSettledNodes(new ArrayList<>());
+        });
+        startComboBox.addActionListener(e -> {
+            if (isochroneButton.isSelected()) showIsochrone(graphManager, mapPanel, startComboBox, isochroneButton, toggleButton.isSelected());
         });
 
         // 최단 경로 버튼 동작 정의
+        // 탐색은 RoutingService의 작업 스레드에서 하고, 결과는 EDT에서 화면에 반영한다
         findPathButton.addActionListener(e -> {
             String startName = (String) startComboBox.getSelectedItem();
             String endName = (String) endComboBox.getSelectedItem();
 
             if (startName != null && endName != null && !startName.equals(endName)) {
-                Node startNode = nodes.stream().filter(n -> n.name.equals(startName)).findFirst().orElse(null);
-                Node endNode = nodes.stream().filter(n -> n.name.equals(endName)).findFirst().orElse(null);
+                Node startNode = graphManager.findNodeByName(startName);
+                Node endNode = graphManager.findNodeByName(endName);
 
                 if (startNode != null && endNode != null) {
-                    // Dijkstra 실행 및 정보 업데이트
-                    List<PathSegment> shortestPath = Dijkstra.findShortestPath(startNode, endNode, edges, mudangs);
-                    if (shortestPath != null && !shortestPath.isEmpty()) {
-                        mapPanel.setShortestPath(shortestPath);
-
-                        PathInfo pathInfo = PathInfo.findPathInfo(startNode, endNode, edges, mudangs);
-                        pathSummaryLabel.setText(String.format(
-                            "출발지: %s, 도착지: %s | 총 거리: %d, 무당 구간: %d, 보도 구간: %d",
-                            startName,
-                            endName,
-                            pathInfo.totalDistance,
-                            pathInfo.mudangCount,
-                            pathInfo.roadCount
-                        ));
-
-                        String detailedInfo = pathInfo.getDetailedPathInfo(edges, mudangs);
-                        pathDetailsLabel.setText("<html>" + detailedInfo.replace(" → ", "<br> → ") + "</html>");
-                    } else {
-                        JOptionPane.showMessageDialog(this, "최단 경로를 찾을 수 없습니다.", "오류", JOptionPane.ERROR_MESSAGE);
-                    }
+                    // 캐시(없으면 경로표) 조회, 이전 경로 요청이 아직 진행 중이면 취소된다
+                    // 이전 경로의 부가 정보는 더 필요 없으므로 같이 취소하고, 도달 범위 작업은 그대로 둔다
+                    routingService.cancel(RoutingService.Kind.EXTRAS);
+                    pendingExtras = null;
+                    long requestedAt = System.nanoTime();
+                    progressBar.setVisible(true);
+                    CompletableFuture<PathInfo> request = routingService.route(startNode, endNode, true);
+                    pendingRoute = request;
+                    request.whenComplete((pathInfo, error) -> SwingUtilities.invokeLater(() -> {
+                        if (pendingRoute != request) return; // 더 새로운 요청이 있으면 무시
+                        pendingRoute = null;
+                        progressBar.setVisible(false);
+                        if (error != null) {
+                            if (!(error instanceof CancellationException)) {
+                                JOptionPane.showMessageDialog(this, "경로를 찾는 중 오류가 발생했습니다.", "오류", JOptionPane.ERROR_MESSAGE);
+                            }
+                            return;
+                        }
+                        double elapsedMillis = (System.nanoTime() - requestedAt) / 1e6;
+                        showPath(graphManager, mapPanel, pathInfo, elapsedMillis, pathSummaryLabel, pathDetailsLabel);
+                    }));
                 }
             } else {
                 JOptionPane.showMessageDialog(this, "출발지와 목적지를 올바르게 선택하세요.", "오류", JOptionPane.WARNING_MESSAGE);
@@ -87,16 +168,185 @@ public class ControlPanel extends JPanel {
         add(rightPanel, BorderLayout.EAST);    // 오른쪽 정보 패널
     }
     
+    // 탐색 결과를 지도와 요약/세부 정보에 반영 (EDT에서 호출)
+    private void showPath(GraphManager graphManager, MapPanel mapPanel, PathInfo pathInfo, double elapsedMillis,
+                          JLabel pathSummaryLabel, JLabel pathDetailsLabel) {
+        List<PathSegment> shortestPath = pathInfo.path;
+        if (shortestPath == null || shortestPath.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "최단 경로를 찾을 수 없습니다.", "오류", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        mapPanel.setShortestPath(shortestPath);
+
+        pathSummaryLabel.setText(summaryText(pathInfo) + String.format(" | 탐색 시간: %.1f ms", elapsedMillis));
+        showDetails(pathInfo, pathDetailsLabel);
+
+        // 탐색 방식별 확정 노드 수 비교(요약 위에 마우스를 올리면 표시)와 Pareto 대안 경로, 이것도 작업 스레드에서 구한다
+        pathSummaryLabel.setToolTipText(null);
+        setAlternatives(new ArrayList<>());
+        mapPanel.setAlternativePaths(new ArrayList<>());
+        mapPanel.setSettledNodes(new ArrayList<>());
+        if (largeFileMap) return;
+        boolean traceSearch = settledButton.isSelected();
+        CompletableFuture<RouteExtras> request = routingService.submit(RoutingService.Kind.EXTRAS, () -> {
+            CompactGraph graph = graphManager.getCompactGraph();
+            int source = graph.indexOf(pathInfo.start);
+            int target = graph.indexOf(pathInfo.end);
+            String modes = DijkstraEngine.compareModes(graph, source, target, true);
+            // 최단 경로와 충분히 다른 우회 경로 (첫 번째는 최단 경로 자신이므로 뺀다)
+            List<List<PathSegment>> detours = new ArrayList<>();
+            List<PathInfo> ranked = KShortestPaths.find(graph, source, target, DETOUR_COUNT + 1, true, DETOUR_MAX_SIMILARITY);
+            for (int i = 1; i < ranked.size(); i++) {
+                detours.add(ranked.get(i).path);
+            }
+            List<Node> settled = traceSearch
+                    ? DijkstraEngine.trace(graph, source, target, true, SearchMode.DIJKSTRA)
+                    : new ArrayList<>();
+            return new RouteExtras(modes, ParetoRouter.route(graph, source, target), detours, settled);
+        });
+        pendingExtras = request;
+        request.thenAccept(extras -> SwingUtilities.invokeLater(() -> {
+            if (pendingExtras != request) return; // 그 사이 다른 경로를 찾았으면 버린다
+            pendingExtras = null;
+            pathSummaryLabel.setToolTipText("확정 노드 수: " + extras.modes);
+            setAlternatives(extras.alternatives);
+            mapPanel.setAlternativePaths(extras.detours);
+            if (settledButton.isSelected()) mapPanel.setSettledNodes(extras.settled);
+        }));
+    }
+
+    private static String summaryText(PathInfo pathInfo) {
+        return String.format(
+            "출발지: %s, 도착지: %s | 총 거리: %d, 무당 구간: %d, 보도 구간: %d",
+            pathInfo.start.name,
+            pathInfo.end.name,
+            pathInfo.totalDistance,
+            pathInfo.mudangCount,
+            pathInfo.roadCount
+        );
+    }
+
+    private static void showDetails(PathInfo pathInfo, JLabel pathDetailsLabel) {
+        String detailedInfo = pathInfo.getDetailedPathInfo();
+        pathDetailsLabel.setText("<html>" + detailedInfo.replace(" → ", "<br> → ") + "</html>");
+    }
+
+    // 대안 목록 갱신 (선택 이벤트로 지도가 바뀌지 않도록 막고 채운다)
+    private void setAlternatives(List<PathInfo> routes) {
+        updatingAlternatives = true;
+        alternatives = routes;
+        alternativesComboBox.removeAllItems();
+        for (int i = 0; i < routes.size(); i++) {
+            PathInfo route = routes.get(i);
+            alternativesComboBox.addItem(String.format("%d. 거리 %d · 무당 %d회 · 도보 %d",
+                i + 1, route.totalDistance, route.boardingCount(), route.walkDistance()));
+        }
+        alternativesComboBox.setEnabled(routes.size() > 1);
+        updatingAlternatives = false;
+    }
+
+    // 작업 스레드에서 경로와 함께 구하는 부가 정보
+    private static final class RouteExtras {
+        final String modes;
+        final List<PathInfo> alternatives;
+        final List<List<PathSegment>> detours;
+        final List<Node> settled;
+
+        RouteExtras(String modes, List<PathInfo> alternatives, List<List<PathSegment>> detours, List<Node> settled) {
+            this.modes = modes;
+            this.alternatives = alternatives;
+            this.detours = detours;
+            this.settled = settled;
+        }
+    }
+
+    // 출발지 기준 도달 범위를 작업 스레드에서 구해 지도에 칠한다
+    private void showIsochrone(GraphManager graphManager, MapPanel mapPanel, JComboBox<String> startComboBox,
+                               JToggleButton isochroneButton, boolean includeMudang) {
+        Node start = graphManager.findNodeByName((String) startComboBox.getSelectedItem());
+        if (start == null) return;
+        int maxBudget = ISOCHRONE_BUDGETS[ISOCHRONE_BUDGETS.length - 1];
+        CompletableFuture<Isochrone> request = routingService.submit(RoutingService.Kind.OVERLAY, () -> {
+            CompactGraph graph = graphManager.getCompactGraph();
+            return Isochrone.compute(graph, graph.indexOf(start), maxBudget, includeMudang);
+        });
+        pendingIsochrone = request;
+        request.thenAccept(isochrone -> SwingUtilities.invokeLater(() -> {
+            if (pendingIsochrone != request) return; // 그 사이 출발지가 바뀌었거나 꺼졌으면 버린다
+            pendingIsochrone = null;
+            if (isochroneButton.isSelected()) mapPanel.setIsochrone(isochrone, ISOCHRONE_BUDGETS);
+        }));
+    }
+
     //선택된 노드 강조
-    private void updateHighlightedNodes(JComboBox<String> startComboBox, JComboBox<String> endComboBox, List<Node> nodes, MapPanel mapPanel) {
-        String startName = (String) startComboBox.getSelectedItem();
-        String endName = (String) endComboBox.getSelectedItem();
-        Node startNode = nodes.stream().filter(n -> n.name.equals(startName)).findFirst().orElse(null);
-        Node endNode = nodes.stream().filter(n -> n.name.equals(endName)).findFirst().orElse(null);
+    private void updateHighlightedNodes(JComboBox<String> startComboBox, JComboBox<String> endComboBox, GraphManager graphManager, MapPanel mapPanel) {
+        Node startNode = graphManager.findNodeByName((String) startComboBox.getSelectedItem());
+        Node endNode = graphManager.findNodeByName((String) endComboBox.getSelectedItem());
         List<Node> highlightedNodes = new ArrayList<>();
         if (startNode != null) highlightedNodes.add(startNode);
         if (endNode != null) highlightedNodes.add(endNode);
         mapPanel.setHighlightedNodes(highlightedNodes);
     }
+
+    // 노드 이름 콤보 박스 모델 (항목 번호 = 노드 id)
+    // 이름을 미리 담아 두지 않고 보일 때 GraphManager에서 읽으므로 지도 파일의 노드가 많아도 가볍다
+    private static final class NodeNameModel extends AbstractListModel<String> implements ComboBoxModel<String> {
+        private final GraphManager graphManager;
+        private final int size;
+        private Object selected;
+
+        NodeNameModel(GraphManager graphManager) {
+            this.graphManager = graphManager;
+            this.size = graphManager.getNodes().size();
+            this.selected = size > 0 ? getElementAt(0) : null; // DefaultComboBoxModel처럼 첫 항목을 골라 둔다
+        }
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public String getElementAt(int index) {
+            return graphManager.getNode(index).name;
+        }
+
+        @Override
+        public void setSelectedItem(Object item) {
+            if (!Objects.equals(selected, item)) {
+                selected = item;
+                fireContentsChanged(this, -1, -1);
+            }
+        }
+
+        @Override
+        public Object getSelectedItem() {
+            return selected;
+        }
+    }
+
+    // 콤보 박스 자동 완성: 잠깐(RESET_MILLIS) 사이에 친 글자를 이어 붙여 이름 색인에서 찾는다
+    // 콤보 박스 항목은 노드 순서대로 넣었으므로 항목 번호가 곧 노드 id다
+    private static final class NameTypeAhead implements JComboBox.KeySelectionManager {
+        private static final long RESET_MILLIS = 1000;
+        private final GraphManager graphManager;
+        private final StringBuilder typed = new StringBuilder();
+        private long lastTypedAt;
+
+        NameTypeAhead(GraphManager graphManager) {
+            this.graphManager = graphManager;
+        }
+
+        @Override
+        public int selectionForKey(char key, ComboBoxModel<?> model) {
+            long now = System.currentTimeMillis();
+            if (now - lastTypedAt > RESET_MILLIS || Character.isISOControl(key)) typed.setLength(0);
+            lastTypedAt = now;
+            if (Character.isISOControl(key)) return -1;
+            typed.append(key);
+            int[] found = graphManager.getNameIndex().search(typed.toString(), 1);
+            return found.length > 0 && found[0] < model.getSize() ? found[0] : -1;
+        }
+    }
     
 }
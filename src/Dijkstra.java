@@ -2,82 +2,51 @@ import java.util.*;
 
 public class Dijkstra {
 
-    public static List<PathSegment> findShortestPath(Node start, Node end, List<Edge> edges, List<Mudang> mudangs) {
-        HashMap<Node, Integer> distances = new HashMap<>();
-        HashMap<Node, Node> previousNodes = new HashMap<>();
-        PriorityQueue<Node> priorityQueue = new PriorityQueue<>(Comparator.comparingInt(distances::get));
-
-        for (Edge edge : edges) {
-            distances.put(edge.getStart(), Integer.MAX_VALUE);
-            distances.put(edge.getEnd(), Integer.MAX_VALUE);
-        }
-        distances.put(start, 0);
-        priorityQueue.add(start);
-
-        Set<Node> visited = new HashSet<>();
-
-        while (!priorityQueue.isEmpty()) {
-            Node current = priorityQueue.poll();
-            if (visited.contains(current)) continue;
-            visited.add(current);
-
-            for (Edge edge : edges) {
-                if (edge.getStart().equals(current) || edge.getEnd().equals(current)) {
-                    Node neighbor = edge.getStart().equals(current) ? edge.getEnd() : edge.getStart();
-                    if (visited.contains(neighbor)) continue;
+    // 같은 엣지/무당 리스트로 반복 호출될 때 CSR 그래프를 다시 만들지 않도록 보관
+    // 비용 변경은 리스트 원소를 새 객체로 바꾸므로(GraphManager.updateEdgeCost 등) 원소 identity까지 비교한다
+    private static List<Edge> cachedEdges;
+    private static List<Mudang> cachedMudangs;
+    private static Edge[] cachedEdgeItems;
+    private static Mudang[] cachedMudangItems;
+    private static CompactGraph cachedGraph;
 
-                    int newDistance = distances.get(current) + edge.getWeight();
-                    if (newDistance < distances.getOrDefault(neighbor, Integer.MAX_VALUE)) {
-                        distances.put(neighbor, newDistance);
-                        previousNodes.put(neighbor, current);
-                        priorityQueue.add(neighbor);
-                    }
-                }
-            }
-
-            for (Mudang mudang : mudangs) {
-                if (mudang.getStart().equals(current)) {
-                    Node neighbor = mudang.getEnd();
-                    if (visited.contains(neighbor)) continue;
-
-                    int newDistance = distances.get(current) + mudang.getWeight();
-                    if (newDistance < distances.getOrDefault(neighbor, Integer.MAX_VALUE)) {
-                        distances.put(neighbor, newDistance);
-                        previousNodes.put(neighbor, current);
-                        priorityQueue.add(neighbor);
-                    }
-                }
-            }
-        }
-
-        List<PathSegment> path = new ArrayList<>();
-        Node step = end;
+    public static List<PathSegment> findShortestPath(Node start, Node end, List<Edge> edges, List<Mudang> mudangs) {
+        return findShortestPath(graphFor(edges, mudangs), start, end);
+    }
 
-        if (!previousNodes.containsKey(end)) {
+    public static List<PathSegment> findShortestPath(CompactGraph graph, Node start, Node end) {
+        int source = graph.indexOf(start);
+        int target = graph.indexOf(end);
+        if (source < 0 || target < 0) {
             System.out.println("경로가 존재하지 않습니다.");
             return Collections.emptyList();
         }
 
-        while (previousNodes.containsKey(step)) {
-            Node previous = previousNodes.get(step);
-
-            // 경로 구분
-            boolean isMudang = false;
-            for (Mudang mudang : mudangs) {
-                if ((mudang.getStart().equals(previous) && mudang.getEnd().equals(step)) ||
-                    (mudang.getEnd().equals(previous) && mudang.getStart().equals(step))) {
-                    isMudang = true;
-                    break;
-                }
-            }
-
-            // PathSegment 추가
-            path.add(0, new PathSegment(previous, step, isMudang));
+        // 실제 탐색은 DijkstraEngine에 위임 (이 메서드는 Node 기반 어댑터)
+        List<PathSegment> path = DijkstraEngine.route(graph, source, target, true);
+        if (path.isEmpty()) {
+            System.out.println("경로가 존재하지 않습니다.");
+        }
+        return path;
+    }
 
-            // 다음 노드로 이동
-            step = previous;
+    private static synchronized CompactGraph graphFor(List<Edge> edges, List<Mudang> mudangs) {
+        if (cachedGraph == null || cachedEdges != edges || cachedMudangs != mudangs
+                || !sameItems(cachedEdgeItems, edges) || !sameItems(cachedMudangItems, mudangs)) {
+            cachedGraph = CompactGraph.build(Collections.emptyList(), edges, mudangs);
+            cachedEdges = edges;
+            cachedMudangs = mudangs;
+            cachedEdgeItems = edges.toArray(new Edge[0]);
+            cachedMudangItems = mudangs.toArray(new Mudang[0]);
         }
+        return cachedGraph;
+    }
 
-        return path;
+    private static boolean sameItems(Object[] cached, List<?> current) {
+        if (cached.length != current.size()) return false;
+        for (int i = 0; i < cached.length; i++) {
+            if (cached[i] != current.get(i)) return false;
+        }
+        return true;
     }
 }
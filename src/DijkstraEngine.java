@@ -0,0 +1,323 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+// CompactGraph 위에서 동작하는 기본형 배열 기반 Dijkstra
+// 스레드별 SearchWorkspace와 인덱스 힙을 재사용하므로 탐색 자체는 객체를 할당하지 않는다
+public final class DijkstraEngine {
+
+    private DijkstraEngine() {
+    }
+
+    // source에서 target까지의 최단 거리 (도달 불가면 Integer.MAX_VALUE)
+    // target이 음수면 전체 노드를 확정할 때까지 탐색한다
+    static int search(CompactGraph graph, int source, int target, boolean useMudang, SearchWorkspace workspace) {
+        IndexedMinHeap heap = workspace.heap;
+        workspace.update(source, 0, -1, SearchWorkspace.NO_ARC);
+        heap.insertOrDecrease(source, 0);
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            workspace.settle(current);
+            if (current == target) break;
+            int base = workspace.distance[current];
+            workspace.scannedArcs += graph.outDegree(current, useMudang);
+
+            for (int i = graph.walkOffsets[current], end = graph.walkOffsets[current + 1]; i < end; i++) {
+                int neighbor = graph.walkTargets[i];
+                if (workspace.isSettled(neighbor)) continue;
+                int newDistance = base + graph.walkWeights[i];
+                if (newDistance < workspace.distanceOf(neighbor)) {
+                    workspace.update(neighbor, newDistance, current, i);
+                    heap.insertOrDecrease(neighbor, newDistance);
+                }
+            }
+
+            if (!useMudang) continue;
+            for (int i = graph.mudangOffsets[current], end = graph.mudangOffsets[current + 1]; i < end; i++) {
+                int neighbor = graph.mudangTargets[i];
+                if (workspace.isSettled(neighbor)) continue;
+                int newDistance = base + graph.mudangWeights[i];
+                if (newDistance < workspace.distanceOf(neighbor)) {
+                    workspace.update(neighbor, newDistance, current, ~i);
+                    heap.insertOrDecrease(neighbor, newDistance);
+                }
+            }
+        }
+        workspace.finish(SearchStats.Kind.DIJKSTRA);
+        return workspace.distanceOf(target < 0 ? source : target);
+    }
+
+    // 같은 탐색을 힙 밖 그래프에서 (인접 배열을 버퍼에서 바로 읽는다)
+    static int search(OffHeapGraph graph, int source, int target, boolean useMudang, SearchWorkspace workspace) {
+        IndexedMinHeap heap = workspace.heap;
+        workspace.update(source, 0, -1, SearchWorkspace.NO_ARC);
+        heap.insertOrDecrease(source, 0);
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            workspace.settle(current);
+            if (current == target) break;
+            int base = workspace.distance[current];
+            int walkStart = graph.walkStart(current);
+            int walkEnd = graph.walkEnd(current);
+            workspace.scannedArcs += walkEnd - walkStart;
+
+            for (int i = walkStart; i < walkEnd; i++) {
+                int neighbor = graph.walkTarget(i);
+                if (workspace.isSettled(neighbor)) continue;
+                int newDistance = base + graph.walkWeight(i);
+                if (newDistance < workspace.distanceOf(neighbor)) {
+                    workspace.update(neighbor, newDistance, current, i);
+                    heap.insertOrDecrease(neighbor, newDistance);
+                }
+            }
+
+            if (!useMudang) continue;
+            int mudangStart = graph.mudangStart(current);
+            int mudangEnd = graph.mudangEnd(current);
+            workspace.scannedArcs += mudangEnd - mudangStart;
+            for (int i = mudangStart; i < mudangEnd; i++) {
+                int neighbor = graph.mudangTarget(i);
+                if (workspace.isSettled(neighbor)) continue;
+                int newDistance = base + graph.mudangWeight(i);
+                if (newDistance < workspace.distanceOf(neighbor)) {
+                    workspace.update(neighbor, newDistance, current, ~i);
+                    heap.insertOrDecrease(neighbor, newDistance);
+                }
+            }
+        }
+        workspace.finish(SearchStats.Kind.DIJKSTRA);
+        return workspace.distanceOf(target < 0 ? source : target);
+    }
+
+    // A*: 힙 키 = 거리 + floor(픽셀당 최소 비용 * 도착지까지 직선 거리)
+    // 엣지마다 비용 >= 비율 * 길이 이므로 휴리스틱은 일관적(consistent)이고, 노드는 한 번만 확정된다
+    static int searchAStar(CompactGraph graph, int source, int target, boolean useMudang, SearchWorkspace workspace) {
+        double ratio = graph.costPerPixel(useMudang);
+        IndexedMinHeap heap = workspace.heap;
+        workspace.update(source, 0, -1, SearchWorkspace.NO_ARC);
+        heap.insertOrDecrease(source, heuristic(graph, source, target, ratio));
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            workspace.settle(current);
+            if (current == target) break;
+            int base = workspace.distance[current];
+            workspace.scannedArcs += graph.outDegree(current, useMudang);
+
+            for (int i = graph.walkOffsets[current], end = graph.walkOffsets[current + 1]; i < end; i++) {
+                int neighbor = graph.walkTargets[i];
+                if (workspace.isSettled(neighbor)) continue;
+                int newDistance = base + graph.walkWeights[i];
+                if (newDistance < workspace.distanceOf(neighbor)) {
+                    workspace.update(neighbor, newDistance, current, i);
+                    heap.insertOrDecrease(neighbor, newDistance + heuristic(graph, neighbor, target, ratio));
+                }
+            }
+
+            if (!useMudang) continue;
+            for (int i = graph.mudangOffsets[current], end = graph.mudangOffsets[current + 1]; i < end; i++) {
+                int neighbor = graph.mudangTargets[i];
+                if (workspace.isSettled(neighbor)) continue;
+                int newDistance = base + graph.mudangWeights[i];
+                if (newDistance < workspace.distanceOf(neighbor)) {
+                    workspace.update(neighbor, newDistance, current, ~i);
+                    heap.insertOrDecrease(neighbor, newDistance + heuristic(graph, neighbor, target, ratio));
+                }
+            }
+        }
+        workspace.finish(SearchStats.Kind.ASTAR);
+        return workspace.distanceOf(target);
+    }
+
+    private static int heuristic(CompactGraph graph, int node, int target, double ratio) {
+        return (int) (ratio * graph.pixelDistance(node, target));
+    }
+
+    // 양방향 Dijkstra: 힙 최솟값이 작은 쪽을 번갈아 확장하고,
+    // 두 힙 최솟값의 합이 지금까지 찾은 최단 거리 이상이 되면 멈춘다
+    // 만난 구간은 meeting[0] = 정방향 쪽 노드, meeting[1] = 역방향 쪽 노드, meeting[2] = 잇는 arc
+    static int searchBidirectional(CompactGraph graph, int source, int target, boolean useMudang,
+                                   SearchWorkspace forward, SearchWorkspace backward, int[] meeting) {
+        forward.update(source, 0, -1, SearchWorkspace.NO_ARC);
+        forward.heap.insertOrDecrease(source, 0);
+        backward.update(target, 0, -1, SearchWorkspace.NO_ARC);
+        backward.heap.insertOrDecrease(target, 0);
+        int best = Integer.MAX_VALUE;
+        meeting[0] = -1;
+
+        while (!forward.heap.isEmpty() && !backward.heap.isEmpty()) {
+            if ((long) forward.heap.peekKey() + backward.heap.peekKey() >= best) break;
+
+            if (forward.heap.peekKey() <= backward.heap.peekKey()) {
+                int current = forward.heap.poll();
+                forward.settle(current);
+                int base = forward.distance[current];
+                forward.scannedArcs += graph.outDegree(current, useMudang);
+                for (int i = graph.walkOffsets[current], end = graph.walkOffsets[current + 1]; i < end; i++) {
+                    best = relax(forward, backward, current, graph.walkTargets[i], base + graph.walkWeights[i], i, best, meeting, false);
+                }
+                if (!useMudang) continue;
+                for (int i = graph.mudangOffsets[current], end = graph.mudangOffsets[current + 1]; i < end; i++) {
+                    best = relax(forward, backward, current, graph.mudangTargets[i], base + graph.mudangWeights[i], ~i, best, meeting, false);
+                }
+            } else {
+                int current = backward.heap.poll();
+                backward.settle(current);
+                int base = backward.distance[current];
+                backward.scannedArcs += graph.inDegree(current, useMudang);
+                for (int i = graph.walkOffsets[current], end = graph.walkOffsets[current + 1]; i < end; i++) {
+                    best = relax(backward, forward, current, graph.walkTargets[i], base + graph.walkWeights[i], i, best, meeting, true);
+                }
+                if (!useMudang) continue;
+                // 역방향은 v로 들어오는 무당 경로를 거꾸로 따라간다
+                for (int k = graph.mudangInOffsets[current], end = graph.mudangInOffsets[current + 1]; k < end; k++) {
+                    int arc = graph.mudangInArcs[k];
+                    best = relax(backward, forward, current, graph.mudangInSources[k], base + graph.mudangWeights[arc], ~arc, best, meeting, true);
+                }
+            }
+        }
+        forward.finish(SearchStats.Kind.BIDIRECTIONAL, backward);
+        return best;
+    }
+
+    private static int relax(SearchWorkspace side, SearchWorkspace other, int current, int neighbor, int newDistance,
+                             int arc, int best, int[] meeting, boolean reversed) {
+        if (side.isSettled(neighbor)) return best;
+        if (newDistance < side.distanceOf(neighbor)) {
+            side.update(neighbor, newDistance, current, arc);
+            side.heap.insertOrDecrease(neighbor, newDistance);
+        }
+        int otherDistance = other.distanceOf(neighbor);
+        if (otherDistance != Integer.MAX_VALUE && (long) newDistance + otherDistance < best) {
+            meeting[0] = reversed ? neighbor : current;
+            meeting[1] = reversed ? current : neighbor;
+            meeting[2] = arc;
+            return newDistance + otherDistance;
+        }
+        return best;
+    }
+
+    // 최단 경로를 PathSegment 목록으로 반환 (경로가 없으면 빈 목록)
+    public static List<PathSegment> route(CompactGraph graph, int source, int target, boolean useMudang) {
+        return route(graph, source, target, useMudang, SearchMode.DIJKSTRA);
+    }
+
+    public static List<PathSegment> route(CompactGraph graph, int source, int target, boolean useMudang, SearchMode mode) {
+        if (source == target) {
+            return Collections.emptyList();
+        }
+        SearchWorkspace workspace = SearchWorkspace.current(graph.nodeCount());
+        switch (mode) {
+            case ASTAR:
+                if (searchAStar(graph, source, target, useMudang, workspace) == Integer.MAX_VALUE) {
+                    return Collections.emptyList();
+                }
+                return extractPath(graph, workspace, target);
+            case BIDIRECTIONAL:
+                SearchWorkspace backward = SearchWorkspace.backward(graph.nodeCount());
+                int[] meeting = new int[3];
+                if (searchBidirectional(graph, source, target, useMudang, workspace, backward, meeting) == Integer.MAX_VALUE) {
+                    return Collections.emptyList();
+                }
+                List<PathSegment> path = extractPath(graph, workspace, meeting[0]);
+                path.add(segment(graph, meeting[0], meeting[1], meeting[2]));
+                // 역방향 탐색 트리의 parent는 도착지 쪽으로 한 칸 다음 노드
+                for (int step = meeting[1]; backward.parent[step] >= 0; step = backward.parent[step]) {
+                    path.add(segment(graph, step, backward.parent[step], backward.parentArc[step]));
+                }
+                return path;
+            default:
+                if (search(graph, source, target, useMudang, workspace) == Integer.MAX_VALUE) {
+                    return Collections.emptyList();
+                }
+                return extractPath(graph, workspace, target);
+        }
+    }
+
+    // 같은 질의를 mode로 실행하며 확정한 노드들 (확정 순서, 양방향은 정방향 다음 역방향) - 디버그 표시용
+    public static List<Node> trace(CompactGraph graph, int source, int target, boolean useMudang, SearchMode mode) {
+        SearchWorkspace forward = SearchWorkspace.current(graph.nodeCount());
+        SearchWorkspace backward = SearchWorkspace.backward(graph.nodeCount());
+        forward.startTrace();
+        backward.startTrace();
+        int[] forwardNodes;
+        int[] backwardNodes;
+        try {
+            route(graph, source, target, useMudang, mode);
+        } finally {
+            forwardNodes = forward.stopTrace();
+            backwardNodes = backward.stopTrace();
+        }
+        List<Node> nodes = new ArrayList<>(forwardNodes.length + backwardNodes.length);
+        for (int node : forwardNodes) {
+            nodes.add(graph.node(node));
+        }
+        for (int node : backwardNodes) {
+            nodes.add(graph.node(node));
+        }
+        return nodes;
+    }
+
+    // 현재 스레드에서 마지막으로 끝난 질의가 확정한 노드 수 (탐색 방식 비교용)
+    public static int lastSettledCount() {
+        return SearchWorkspace.lastSettledCount();
+    }
+
+    // 같은 질의를 모든 방식으로 실행해 확정 노드 수를 나열 (예: "Dijkstra 14, A* 9, 양방향 10")
+    public static String compareModes(CompactGraph graph, int source, int target, boolean useMudang) {
+        StringBuilder report = new StringBuilder();
+        for (SearchMode mode : SearchMode.values()) {
+            route(graph, source, target, useMudang, mode);
+            if (report.length() > 0) report.append(", ");
+            report.append(mode).append(' ').append(lastSettledCount());
+        }
+        return report.toString();
+    }
+
+    // 확정된 탐색 트리에서 target까지의 경로를 거꾸로 따라가며 복원
+    static List<PathSegment> extractPath(CompactGraph graph, SearchWorkspace workspace, int target) {
+        List<PathSegment> path = new ArrayList<>();
+        for (int step = target; workspace.parent[step] >= 0; step = workspace.parent[step]) {
+            path.add(segment(graph, workspace.parent[step], step, workspace.parentArc[step]));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private static PathSegment segment(CompactGraph graph, int from, int to, int arc) {
+        boolean isMudang = arc < 0;
+        int weight = isMudang ? graph.mudangWeights[~arc] : graph.walkWeights[arc];
+        return new PathSegment(graph.node(from), graph.node(to), isMudang, weight);
+    }
+
+    // 힙 밖 그래프의 최단 경로 (경로 위 노드만 등록되지 않은 Node로 만든다)
+    public static List<PathSegment> route(OffHeapGraph graph, int source, int target, boolean useMudang) {
+        return route(graph, source, target, useMudang, graph::node);
+    }
+
+    // nodes: 노드 번호 -> 경로 구간에 넣을 Node (GraphManager가 파일 그래프를 열었으면 그 id의 노드)
+    public static List<PathSegment> route(OffHeapGraph graph, int source, int target, boolean useMudang, IntFunction<Node> nodes) {
+        if (source == target) {
+            return Collections.emptyList();
+        }
+        SearchWorkspace workspace = SearchWorkspace.current(graph.nodeCount());
+        if (search(graph, source, target, useMudang, workspace) == Integer.MAX_VALUE) {
+            return Collections.emptyList();
+        }
+        List<PathSegment> path = new ArrayList<>();
+        Node to = nodes.apply(target);
+        for (int step = target; workspace.parent[step] >= 0; step = workspace.parent[step]) {
+            int arc = workspace.parentArc[step];
+            boolean isMudang = arc < 0;
+            int weight = isMudang ? graph.mudangWeight(~arc) : graph.walkWeight(arc);
+            Node from = nodes.apply(workspace.parent[step]);
+            path.add(new PathSegment(from, to, isMudang, weight));
+            to = from;
+        }
+        Collections.reverse(path);
+        return path;
+    }
+}
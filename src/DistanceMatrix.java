@@ -0,0 +1,96 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// 한 출발지에서 여러 도착지, 여러 출발지에서 여러 도착지까지의 최단 거리
+// 출발지마다 탐색 트리 하나로 모든 도착지를 구하고, 도착지가 모두 확정되면 바로 멈춘다
+// 결과는 객체 없이 행 우선 int 배열 (도달 불가 / 그래프에 없는 노드는 Integer.MAX_VALUE)
+public final class DistanceMatrix {
+
+    private DistanceMatrix() {
+    }
+
+    // source에서 targets[j]까지의 거리
+    public static int[] distances(CompactGraph graph, int source, int[] targets, boolean useMudang) {
+        int[] result = new int[targets.length];
+        boolean[] isTarget = targetMask(graph, targets);
+        fillRow(graph, source, targets, isTarget, count(isTarget), useMudang, result, 0);
+        return result;
+    }
+
+    // result[i * targets.length + j] = sources[i]에서 targets[j]까지의 거리, 출발지는 fork-join 풀에서 병렬로 처리한다
+    public static int[] matrix(CompactGraph graph, int[] sources, int[] targets, boolean useMudang) {
+        int[] result = new int[sources.length * targets.length];
+        boolean[] isTarget = targetMask(graph, targets);
+        int distinctTargets = count(isTarget);
+        IntStream.range(0, sources.length).parallel()
+                .forEach(i -> fillRow(graph, sources[i], targets, isTarget, distinctTargets, useMudang, result, i * targets.length));
+        return result;
+    }
+
+    private static boolean[] targetMask(CompactGraph graph, int[] targets) {
+        boolean[] isTarget = new boolean[graph.nodeCount()];
+        for (int target : targets) {
+            if (target >= 0) isTarget[target] = true;
+        }
+        return isTarget;
+    }
+
+    private static int count(boolean[] marks) {
+        int count = 0;
+        for (boolean marked : marks) {
+            if (marked) count++;
+        }
+        return count;
+    }
+
+    private static void fillRow(CompactGraph graph, int source, int[] targets, boolean[] isTarget, int distinctTargets,
+                                boolean useMudang, int[] result, int offset) {
+        if (source < 0) {
+            Arrays.fill(result, offset, offset + targets.length, Integer.MAX_VALUE);
+            return;
+        }
+        SearchWorkspace workspace = SearchWorkspace.current(graph.nodeCount());
+        search(graph, source, isTarget, distinctTargets, useMudang, workspace);
+        for (int j = 0; j < targets.length; j++) {
+            result[offset + j] = targets[j] < 0 ? Integer.MAX_VALUE : workspace.distanceOf(targets[j]);
+        }
+    }
+
+    // DijkstraEngine.search와 같지만 도착지 remaining개가 모두 확정되면 멈춘다
+    static void search(CompactGraph graph, int source, boolean[] isTarget, int remaining, boolean useMudang,
+                       SearchWorkspace workspace) {
+        IndexedMinHeap heap = workspace.heap;
+        workspace.update(source, 0, -1, SearchWorkspace.NO_ARC);
+        heap.insertOrDecrease(source, 0);
+
+        while (remaining > 0 && !heap.isEmpty()) {
+            int current = heap.poll();
+            workspace.settle(current);
+            if (isTarget[current] && --remaining == 0) break;
+            int base = workspace.distance[current];
+            workspace.scannedArcs += graph.outDegree(current, useMudang);
+
+            for (int i = graph.walkOffsets[current], end = graph.walkOffsets[current + 1]; i < end; i++) {
+                int neighbor = graph.walkTargets[i];
+                if (workspace.isSettled(neighbor)) continue;
+                int newDistance = base + graph.walkWeights[i];
+                if (newDistance < workspace.distanceOf(neighbor)) {
+                    workspace.update(neighbor, newDistance, current, i);
+                    heap.insertOrDecrease(neighbor, newDistance);
+                }
+            }
+
+            if (!useMudang) continue;
+            for (int i = graph.mudangOffsets[current], end = graph.mudangOffsets[current + 1]; i < end; i++) {
+                int neighbor = graph.mudangTargets[i];
+                if (workspace.isSettled(neighbor)) continue;
+                int newDistance = base + graph.mudangWeights[i];
+                if (newDistance < workspace.distanceOf(neighbor)) {
+                    workspace.update(neighbor, newDistance, current, ~i);
+                    heap.insertOrDecrease(neighbor, newDistance);
+                }
+            }
+        }
+        workspace.finish(SearchStats.Kind.MATRIX);
+    }
+}
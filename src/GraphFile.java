@@ -0,0 +1,219 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// 그래프 바이너리 파일 (리틀 엔디언, 모든 구역은 4바이트 정렬)
+//
+//   헤더        magic "NAVG", 형식 버전, 노드 수, 엣지 수, 무당 수, 문자열 풀 크기
+//   노드 표     노드마다 x, y, 이름 시작 위치, 이름 길이 (이름은 문자열 풀 안의 UTF-8)
+//   엣지 배열   엣지마다 from, to, cost (노드 번호)
+//   무당 배열   무당마다 from, to, cost
+//   문자열 풀   "학생회관" 같은 노드 이름을 이어 붙인 UTF-8 바이트
+//
+// 읽을 때는 FileChannel.map으로 파일을 그대로 메모리에 올리고, 값은 필요할 때 위치를 계산해 읽는다
+public final class GraphFile {
+    static final int MAGIC = 0x4756414E; // "NAVG" (리틀 엔디언)
+    static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_BYTES = 24;
+    private static final int NODE_BYTES = 16;
+    private static final int ARC_BYTES = 12;
+
+    private final ByteBuffer buffer;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final int mudangCount;
+    private final int stringBytes;
+    private final int nodeBase;
+    private final int edgeBase;
+    private final int mudangBase;
+    private final int stringBase;
+
+    private GraphFile(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("그래프 파일이 아닙니다.");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("지원하지 않는 그래프 파일 버전: " + buffer.getInt(4));
+        }
+        nodeCount = buffer.getInt(8);
+        edgeCount = buffer.getInt(12);
+        mudangCount = buffer.getInt(16);
+        stringBytes = buffer.getInt(20);
+        if (nodeCount < 0 || edgeCount < 0 || mudangCount < 0 || stringBytes < 0) {
+            throw new IOException("그래프 파일 헤더가 잘못되었습니다.");
+        }
+        // 손상된 헤더의 큰 개수가 int 곱셈에서 넘쳐 잘림 검사를 빠져나가지 않도록 long으로 계산한다
+        long edgeStart = HEADER_BYTES + (long) nodeCount * NODE_BYTES;
+        long mudangStart = edgeStart + (long) edgeCount * ARC_BYTES;
+        long stringStart = mudangStart + (long) mudangCount * ARC_BYTES;
+        if (stringStart + stringBytes > buffer.capacity()) {
+            throw new IOException("그래프 파일이 잘렸습니다.");
+        }
+        nodeBase = HEADER_BYTES;
+        edgeBase = (int) edgeStart;
+        mudangBase = (int) mudangStart;
+        stringBase = (int) stringStart;
+    }
+
+    // 파일을 읽기 전용으로 메모리 매핑 (엣지 개수와 상관없이 헤더만 확인한다)
+    public static GraphFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new GraphFile(mapped);
+        }
+    }
+
+    // 노드/엣지/무당 리스트를 파일로 저장 (엣지 끝점은 nodes 안의 위치로 기록)
+    public static void write(List<Node> nodes, List<Edge> edges, List<Mudang> mudangs, Path file) throws IOException {
+        CompactGraph index = CompactGraph.build(nodes, edges, mudangs);
+        if (index.nodeCount() != nodes.size()) {
+            throw new IOException("노드 목록에 없는 엣지 끝점이 있습니다.");
+        }
+
+        byte[][] names = new byte[nodes.size()][];
+        int stringBytes = 0;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = nodes.get(i).name.getBytes(StandardCharsets.UTF_8);
+            stringBytes += names[i].length;
+        }
+        int size = HEADER_BYTES + nodes.size() * NODE_BYTES + (edges.size() + mudangs.size()) * ARC_BYTES + stringBytes;
+        ByteBuffer out = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(FORMAT_VERSION)
+                .putInt(nodes.size()).putInt(edges.size()).putInt(mudangs.size()).putInt(stringBytes);
+
+        int nameOffset = 0;
+        for (int i = 0; i < names.length; i++) {
+            Node node = nodes.get(i);
+            out.putInt(node.x).putInt(node.y).putInt(nameOffset).putInt(names[i].length);
+            nameOffset += names[i].length;
+        }
+        for (Edge edge : edges) {
+            if (edge.getWeight() <= 0) throw new IOException("비용이 1보다 작은 엣지: " + edge.getStart().name + " - " + edge.getEnd().name);
+            out.putInt(index.indexOf(edge.getStart())).putInt(index.indexOf(edge.getEnd())).putInt(edge.getWeight());
+        }
+        for (Mudang mudang : mudangs) {
+            if (mudang.getWeight() <= 0) throw new IOException("비용이 1보다 작은 무당 경로: " + mudang.getStart().name + " -> " + mudang.getEnd().name);
+            out.putInt(index.indexOf(mudang.getStart())).putInt(index.indexOf(mudang.getEnd())).putInt(mudang.getWeight());
+        }
+        for (byte[] name : names) {
+            out.put(name);
+        }
+        out.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    // 노드 이름 구간, 엣지/무당 레코드의 끝점과 비용을 확인 (open은 헤더만 보므로 레코드를 모두 읽기 전에 부른다)
+    public void validate() throws IOException {
+        long totalNameBytes = 0;
+        for (int v = 0; v < nodeCount; v++) {
+            int offset = buffer.getInt(nodeBase + v * NODE_BYTES + 8);
+            int length = nameLength(v);
+            if (offset < 0 || length < 0 || (long) offset + length > stringBytes) {
+                throw new IOException("노드 " + v + ": 이름이 문자열 풀 밖에 있습니다 (" + offset + ", " + length + ")");
+            }
+            totalNameBytes += length;
+        }
+        // 이름 구간이 겹쳐도 읽을 수는 있지만, 이름을 이어 붙여 복사하는 쪽(OffHeapGraph)이 int로 셀 수 있어야 한다
+        if (totalNameBytes > Integer.MAX_VALUE) {
+            throw new IOException("노드 이름 바이트가 너무 많습니다: " + totalNameBytes);
+        }
+        for (int i = 0; i < edgeCount; i++) {
+            checkArc("엣지", i, edgeFrom(i), edgeTo(i), edgeCost(i));
+        }
+        for (int i = 0; i < mudangCount; i++) {
+            checkArc("무당", i, mudangFrom(i), mudangTo(i), mudangCost(i));
+        }
+    }
+
+    private void checkArc(String kind, int index, int from, int to, int cost) throws IOException {
+        if (from < 0 || from >= nodeCount || to < 0 || to >= nodeCount) {
+            throw new IOException(kind + " " + index + ": 없는 노드 번호 " + from + " -> " + to);
+        }
+        if (cost <= 0) {
+            throw new IOException(kind + " " + index + ": 비용은 1 이상이어야 합니다: " + cost);
+        }
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    public int mudangCount() {
+        return mudangCount;
+    }
+
+    public int nodeX(int node) {
+        return buffer.getInt(nodeBase + node * NODE_BYTES);
+    }
+
+    public int nodeY(int node) {
+        return buffer.getInt(nodeBase + node * NODE_BYTES + 4);
+    }
+
+    // 이름은 요청할 때만 문자열 풀에서 디코딩한다
+    public String nodeName(int node) {
+        int offset = buffer.getInt(nodeBase + node * NODE_BYTES + 8);
+        int length = buffer.getInt(nodeBase + node * NODE_BYTES + 12);
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(stringBase + offset);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // 이름의 UTF-8 바이트 수
+    int nameLength(int node) {
+        return buffer.getInt(nodeBase + node * NODE_BYTES + 12);
+    }
+
+    // 이름의 UTF-8 바이트를 디코딩하지 않고 target의 현재 위치에 복사한다
+    void copyName(int node, ByteBuffer target) {
+        int offset = buffer.getInt(nodeBase + node * NODE_BYTES + 8);
+        int length = nameLength(node);
+        ByteBuffer view = buffer.duplicate();
+        view.position(stringBase + offset).limit(stringBase + offset + length);
+        target.put(view);
+    }
+
+    public int edgeFrom(int edge) {
+        return buffer.getInt(edgeBase + edge * ARC_BYTES);
+    }
+
+    public int edgeTo(int edge) {
+        return buffer.getInt(edgeBase + edge * ARC_BYTES + 4);
+    }
+
+    public int edgeCost(int edge) {
+        return buffer.getInt(edgeBase + edge * ARC_BYTES + 8);
+    }
+
+    public int mudangFrom(int mudang) {
+        return buffer.getInt(mudangBase + mudang * ARC_BYTES);
+    }
+
+    public int mudangTo(int mudang) {
+        return buffer.getInt(mudangBase + mudang * ARC_BYTES + 4);
+    }
+
+    public int mudangCost(int mudang) {
+        return buffer.getInt(mudangBase + mudang * ARC_BYTES + 8);
+    }
+}
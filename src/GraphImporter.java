@@ -0,0 +1,97 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// CSV 텍스트 그래프를 읽어 바이너리 그래프 파일(GraphFile)로 변환
+//
+//   # 주석
+//   node,정문,118,1976
+//   edge,정문,비타,1
+//   mudang,반단대,교대,1
+//
+// edge/mudang은 앞에서 정의한 노드 이름을 참조한다
+public final class GraphImporter {
+
+    private GraphImporter() {
+    }
+
+    public static void compile(Path csvFile, Path graphFile) throws IOException {
+        List<Node> nodes = new ArrayList<>();
+        List<Edge> edges = new ArrayList<>();
+        List<Mudang> mudangs = new ArrayList<>();
+        Map<String, Node> byName = new HashMap<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] fields = line.split(",");
+                try {
+                    switch (fields[0].trim()) {
+                        case "node": {
+                            // 이름에 쉼표가 들어갈 수 있으므로("1,2긱") 좌표는 뒤에서부터 읽는다
+                            int y = Integer.parseInt(fields[fields.length - 1].trim());
+                            int x = Integer.parseInt(fields[fields.length - 2].trim());
+                            String name = line.substring(line.indexOf(',') + 1, nthLastComma(line, 2)).trim();
+                            Node node = new Node(name, x, y);
+                            nodes.add(node);
+                            byName.put(name, node);
+                            break;
+                        }
+                        case "edge":
+                        case "mudang": {
+                            int cost = Integer.parseInt(fields[fields.length - 1].trim());
+                            // 비용이 0인 엣지가 있으면 같은 거리의 다음 노드가 서로를 가리키는 순환이 생길 수 있다
+                            if (cost <= 0) {
+                                throw new IOException("비용은 1 이상이어야 합니다: " + cost);
+                            }
+                            String[] ends = splitEndpoints(line.substring(line.indexOf(',') + 1, nthLastComma(line, 1)), byName);
+                            if (fields[0].trim().equals("edge")) {
+                                edges.add(new Edge(byName.get(ends[0]), byName.get(ends[1]), cost));
+                            } else {
+                                mudangs.add(new Mudang(byName.get(ends[0]), byName.get(ends[1]), cost));
+                            }
+                            break;
+                        }
+                        default:
+                            throw new IOException("알 수 없는 항목: " + fields[0]);
+                    }
+                } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                    throw new IOException(csvFile + ":" + lineNumber + " 형식 오류: " + line, e);
+                } catch (IOException e) {
+                    throw new IOException(csvFile + ":" + lineNumber + " " + e.getMessage(), e);
+                }
+            }
+        }
+        GraphFile.write(nodes, edges, mudangs, graphFile);
+    }
+
+    private static int nthLastComma(String line, int n) {
+        int index = line.length();
+        for (int i = 0; i < n; i++) {
+            index = line.lastIndexOf(',', index - 1);
+        }
+        return index;
+    }
+
+    // "정문,1,2긱"처럼 이름에 쉼표가 있어도 알려진 노드 이름 두 개로 나뉘는 위치를 찾는다
+    private static String[] splitEndpoints(String endpoints, Map<String, Node> byName) throws IOException {
+        for (int i = endpoints.indexOf(','); i >= 0; i = endpoints.indexOf(',', i + 1)) {
+            String from = endpoints.substring(0, i).trim();
+            String to = endpoints.substring(i + 1).trim();
+            if (byName.containsKey(from) && byName.containsKey(to)) {
+                return new String[]{from, to};
+            }
+        }
+        throw new IOException("정의되지 않은 노드: " + endpoints);
+    }
+}
@@ -0,0 +1,175 @@
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.geom.CubicCurve2D;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// 지도 위에 고정으로 그려지는 그래프(보도 곡선, 노드 원, 이름)의 불변 스냅샷
+// 타일 렌더러 스레드에서 그리므로 만들 때 좌표와 이름을 OffHeapGraph로 복사해 두고 원본 리스트는 보지 않는다
+// 그래프 파일에서 연 지도는 복사하지 않고 GraphManager가 연 OffHeapGraph를 그대로 쓴다 (불변이라 공유해도 된다)
+// 좌표/이름/격자가 모두 힙 밖에 있어서 노드가 수백만 개여도 힙 사용량이 늘지 않고, 이름은 화면에 쓸 때만 디코딩한다
+final class GraphLayer {
+    // 노드 원/이름, 곡선 제어점이 좌표에서 벗어나는 만큼 그릴 영역을 넓혀 질의
+    static final int MARGIN = 80;
+
+    // 상세 표현(곡선, 이름)을 그리는 최소 줌과 화면 한 장(1000 x 700)에 들어갈 최대 개수
+    private static final double CURVE_MIN_ZOOM = 0.7;
+    private static final double LABEL_MIN_ZOOM = 0.8;
+    private static final int DETAIL_LIMIT = 2000;
+    private static final double SCREEN_AREA = 1000.0 * 700.0;
+
+    private static final Color EDGE_COLOR = new Color(70, 130, 180); // 파란색 계열
+    private static final Color NODE_COLOR = new Color(220, 20, 60);  // 붉은색 계열
+    private static final BasicStroke EDGE_STROKE = new BasicStroke(2);
+    private static final BasicStroke NODE_STROKE = new BasicStroke(2);
+
+    // 노드 번호 0 ~ nodeCount - 1이 원본 노드 리스트 순서 (그 뒤는 리스트에 없던 엣지 끝점이라 그리지 않는다)
+    private final OffHeapGraph graph;
+    private final int nodeCount;
+    private final Font font;
+    private final int width;
+    private final int height;
+
+    // 노드는 좌표 한 점, 엣지는 곡선 제어점까지 포함한 사각형으로 등록한 격자
+    private final SpatialGrid nodeGrid;
+    private final SpatialGrid edgeGrid;
+
+    // 아래 필드는 draw 안에서만 쓰며 draw는 synchronized
+    private final IndexBuffer visibleNodes = new IndexBuffer();
+    private final IndexBuffer visibleEdges = new IndexBuffer();
+    private final CubicCurve2D.Double curve = new CubicCurve2D.Double();
+
+    private GraphLayer(OffHeapGraph graph, int nodeCount, Font font) {
+        this.font = font;
+        this.graph = graph;
+        this.nodeCount = nodeCount;
+        int right = 0, bottom = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            right = Math.max(right, graph.x(i));
+            bottom = Math.max(bottom, graph.y(i));
+        }
+        nodeGrid = new SpatialGrid(nodeCount, graph::x, graph::y, graph::x, graph::y);
+
+        // 엣지 경계 사각형은 곡선 제어점(가운데 ±30)까지 포함한다
+        edgeGrid = new SpatialGrid(graph.edgeCount(),
+                i -> Math.min(Math.min(fromX(i), toX(i)), (fromX(i) + toX(i)) / 2 - 30),
+                i -> Math.min(Math.min(fromY(i), toY(i)), (fromY(i) + toY(i)) / 2 - 30),
+                i -> Math.max(Math.max(fromX(i), toX(i)), (fromX(i) + toX(i)) / 2 + 30),
+                i -> Math.max(Math.max(fromY(i), toY(i)), (fromY(i) + toY(i)) / 2 + 30));
+        for (int i = 0; i < graph.edgeCount(); i++) {
+            right = Math.max(right, Math.max(Math.max(fromX(i), toX(i)), (fromX(i) + toX(i)) / 2 + 30));
+            bottom = Math.max(bottom, Math.max(Math.max(fromY(i), toY(i)), (fromY(i) + toY(i)) / 2 + 30));
+        }
+        width = right + MARGIN;
+        height = bottom + MARGIN;
+    }
+
+    static GraphLayer of(List<Node> nodes, List<Edge> edges, Font font) {
+        return new GraphLayer(OffHeapGraph.build(nodes, edges, Collections.emptyList()), nodes.size(), font);
+    }
+
+    // 무당은 그리지 않으므로 graph에 무당이 있어도 상관없다
+    static GraphLayer of(OffHeapGraph graph, Font font) {
+        return new GraphLayer(graph, graph.nodeCount(), font);
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    int edgeCount() {
+        return graph.edgeCount();
+    }
+
+    private int fromX(int edge) {
+        return graph.x(graph.edgeFrom(edge));
+    }
+
+    private int fromY(int edge) {
+        return graph.y(graph.edgeFrom(edge));
+    }
+
+    private int toX(int edge) {
+        return graph.x(graph.edgeTo(edge));
+    }
+
+    private int toY(int edge) {
+        return graph.y(graph.edgeTo(edge));
+    }
+
+    // 그래프가 차지하는 지도 좌표 범위 (원점 ~ width, height)
+    int width() {
+        return width;
+    }
+
+    int height() {
+        return height;
+    }
+
+    // 지도 좌표 사각형에 걸치는 엣지/노드만 그린다 (g는 지도 좌표계로 변환된 상태)
+    synchronized void draw(Graphics2D g2, double minX, double minY, double maxX, double maxY, double zoom) {
+        visibleEdges.size = 0;
+        visibleNodes.size = 0;
+        edgeGrid.query(minX - MARGIN, minY - MARGIN, maxX + MARGIN, maxY + MARGIN, visibleEdges::add);
+        nodeGrid.query(minX - MARGIN, minY - MARGIN, maxX + MARGIN, maxY + MARGIN, visibleNodes::add);
+
+        // 멀리서 볼 때(또는 화면에 너무 많을 때)는 곡선을 직선으로, 이름은 생략
+        // 타일마다 판단이 달라지지 않도록 개수는 그래프 전체의 평균 밀도로 어림한다
+        double screenShare = SCREEN_AREA / (zoom * zoom) / Math.max(1.0, (double) width * height);
+        boolean drawCurves = zoom >= CURVE_MIN_ZOOM && edgeCount() * screenShare <= DETAIL_LIMIT;
+        boolean drawLabels = zoom >= LABEL_MIN_ZOOM && nodeCount() * screenShare <= DETAIL_LIMIT;
+
+        // 엣지 그리기 (곡선)
+        g2.setColor(EDGE_COLOR);
+        g2.setStroke(EDGE_STROKE);
+        for (int k = 0; k < visibleEdges.size; k++) {
+            int i = visibleEdges.items[k];
+            int fromX = fromX(i), fromY = fromY(i), toX = toX(i), toY = toY(i);
+            if (!drawCurves) {
+                g2.drawLine(fromX, fromY, toX, toY);
+                continue;
+            }
+            double ctrlX1 = (fromX + toX) / 2.0 + 30; // 첫 번째 제어점
+            double ctrlY1 = (fromY + toY) / 2.0 - 30;
+            double ctrlX2 = (fromX + toX) / 2.0 - 30; // 두 번째 제어점
+            double ctrlY2 = (fromY + toY) / 2.0 + 30;
+            curve.setCurve(fromX, fromY, ctrlX1, ctrlY1, ctrlX2, ctrlY2, toX, toY);
+            g2.draw(curve);
+        }
+
+        // 노드 그리기
+        g2.setStroke(NODE_STROKE);
+        g2.setFont(font);
+        for (int k = 0; k < visibleNodes.size; k++) {
+            int i = visibleNodes.items[k];
+            drawNode(g2, graph.x(i), graph.y(i), drawLabels ? graph.name(i) : null, NODE_COLOR);
+        }
+    }
+
+    // 노드 원, 테두리, 이름 (강조 노드도 MapPanel에서 같은 모양으로 덧그린다)
+    static void drawNode(Graphics2D g2, int x, int y, String label, Color fill) {
+        g2.setColor(fill);
+        g2.fillOval(x - 15, y - 15, 30, 30);
+        g2.setColor(Color.BLACK);
+        g2.drawOval(x - 15, y - 15, 30, 30);
+        if (label != null) {
+            g2.drawString(label, x - 20, y - 20);
+        }
+    }
+
+    // 격자 질의 결과(항목 번호)를 담아 두는 재사용 버퍼
+    private static final class IndexBuffer {
+        int[] items = new int[64];
+        int size;
+
+        void add(int item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = item;
+        }
+    }
+}
@@ -1,11 +1,68 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
 
+// 경로 탐색은 RoutingService의 작업 스레드에서도 돌기 때문에
+// 탐색용 파생 데이터(CSR, 경로표)는 불변 스냅샷으로 묶어 읽는 쪽은 잠그지 않고,
+// 그래프 변경과 파생 데이터 생성은 이 객체로 잠근 뒤 새 스냅샷으로 교체한다 (copy-on-write)
+// 노드/엣지/무당 리스트도 잠근 상태에서만 고치고, 밖(지도 그리기 등)에는 바뀌지 않는 사본을 내준다
 public class GraphManager {
     private final List<Node> nodes;
     private final List<Edge> edges;
     private final List<Mudang> mudang;
 
+    // getNodes/getEdges/getMudangs가 내주는 불변 사본 (해당 리스트가 바뀌면 버리고 다음 요청 때 다시 만든다)
+    private volatile List<Node> nodeView;
+    private volatile List<Edge> edgeView;
+    private volatile List<Mudang> mudangView;
+
+    // openGraphFile로 연 읽기 전용 지도 (null이 아니면 위 리스트는 비어 있고 노드/엣지/무당은 모두 여기서 읽는다)
+    private volatile OffHeapGraph fileGraph;
+
+    // 노드 이름 -> id (id는 nodes 안의 위치, 같은 이름이면 먼저 추가한 노드)
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+    // 자동 완성용 이름 색인 (노드가 추가되면 버리고 다음 검색 때 다시 만든다)
+    private volatile NodeNameIndex nameIndex;
+
+    // 꺼 둔 무당 경로 (다시 켜면 mudang 목록으로 돌아간다)
+    private final List<Mudang> disabledMudangs = new ArrayList<>();
+
+    // 무당 구간별 운행 시간표 (없는 구간은 언제나 고정 비용으로 운행한다고 본다)
+    private final Map<Mudang, MudangTimetable> timetables = new IdentityHashMap<>();
+
+    // 시간표 기반 탐색기 (그래프나 시간표가 바뀌면 버린다)
+    private TimeDependentRouter timeRouter;
+
+    // 탐색이 읽는 현재 스냅샷
+    private volatile Snapshot snapshot = new Snapshot(0, null, new RouteTable[2]);
+
+    // Contraction Hierarchies [0] = 보도만, [1] = 무당 포함 (변경 시 버린다)
+    private final ContractionHierarchy[] hierarchies = new ContractionHierarchy[2];
+    // 경로표를 만들기에는 큰 그래프에서 findPath가 쓸 CH의 캐시 파일 기준 경로 (null이면 Dijkstra로 탐색)
+    private Path hierarchyBase;
+
+    // 한 번 발행하면 바뀌지 않는 탐색용 데이터 묶음
+    private static final class Snapshot {
+        final long version;              // 그래프가 바뀔 때마다 증가 (캐시 무효화용)
+        final CompactGraph graph;        // 탐색용 CSR 그래프 (null이면 아직 만들지 않음)
+        final RouteTable[] routeTables;  // 전체 쌍 경로표 [0] = 보도만, [1] = 무당 포함 (null이면 아직 만들지 않음)
+
+        Snapshot(long version, CompactGraph graph, RouteTable[] routeTables) {
+            this.version = version;
+            this.graph = graph;
+            this.routeTables = routeTables;
+        }
+    }
+
     public GraphManager() {
         this.nodes = new ArrayList<>();
         this.edges = new ArrayList<>();
@@ -13,23 +70,24 @@ public class GraphManager {
     }
 
     // 초기 데이터 설정
-    public void initializeData() {
-        nodes.add(new Node("정문", 118, 1976));  // 0
-        nodes.add(new Node("비타", 77, 2224));  // 1
-        nodes.add(new Node("공대2", 423, 2339));  // 2
-        nodes.add(new Node("반단대", 91, 1840));  // 3
-        nodes.add(new Node("글센", 76, 1553));  // 4
-        nodes.add(new Node("전정도", 431, 1933));  // 5
-        nodes.add(new Node("예체대", 554, 1536));  // 6
-        nodes.add(new Node("가천관", 685, 2021));  // 7
-        nodes.add(new Node("산협", 622, 2301));  // 8
-        nodes.add(new Node("교대", 1176, 1564));  // 9
-        nodes.add(new Node("중도", 1496, 1376));  // 10
-        nodes.add(new Node("학생회관", 1816, 1137));  // 11
-        nodes.add(new Node("에공", 1744, 517));  // 12
-        nodes.add(new Node("3긱", 1584, 389));  // 13
-        nodes.add(new Node("1,2긱", 1915, 294));  // 14
-        nodes.add(new Node("운동장", 1970, 500));  // 15
+    public synchronized void initializeData() {
+        checkEditable();
+        createNode("정문", 118, 1976);  // 0
+        createNode("비타", 77, 2224);  // 1
+        createNode("공대2", 423, 2339);  // 2
+        createNode("반단대", 91, 1840);  // 3
+        createNode("글센", 76, 1553);  // 4
+        createNode("전정도", 431, 1933);  // 5
+        createNode("예체대", 554, 1536);  // 6
+        createNode("가천관", 685, 2021);  // 7
+        createNode("산협", 622, 2301);  // 8
+        createNode("교대", 1176, 1564);  // 9
+        createNode("중도", 1496, 1376);  // 10
+        createNode("학생회관", 1816, 1137);  // 11
+        createNode("에공", 1744, 517);  // 12
+        createNode("3긱", 1584, 389);  // 13
+        createNode("1,2긱", 1915, 294);  // 14
+        createNode("운동장", 1970, 500);  // 15
         
 //        nodes.add(new Node("정문", 700, 720));  // 0
 //        nodes.add(new Node("비타", 780, 670));  // 1
@@ -81,37 +139,495 @@ public class GraphManager {
         mudang.add(new Mudang(nodes.get(3), nodes.get(9), 1));
         mudang.add(new Mudang(nodes.get(9), nodes.get(11), 1));
         mudang.add(new Mudang(nodes.get(11), nodes.get(15), 1));
+
+        // 무당 시간표: 08:00 ~ 21:00, 10분 간격 (이동 시간 = 구간 비용)
+        for (Mudang line : mudang) {
+            timetables.put(line, MudangTimetable.periodic(8 * 60, 21 * 60, 10, line.cost));
+        }
+        graphChanged(null);
+    }
+
+    // 바이너리 그래프 파일(GraphFile)에서 노드/엣지/무당을 읽어 추가 (경로표는 버리고 다음 요청 때 다시 만든다)
+    public synchronized void loadGraphFile(Path file) throws IOException {
+        checkEditable();
+        GraphFile graphFile = GraphFile.open(file);
+        graphFile.validate();
+        int base = nodes.size();
+        for (int i = 0; i < graphFile.nodeCount(); i++) {
+            createNode(graphFile.nodeName(i), graphFile.nodeX(i), graphFile.nodeY(i));
+        }
+        for (int i = 0; i < graphFile.edgeCount(); i++) {
+            edges.add(new Edge(nodes.get(base + graphFile.edgeFrom(i)), nodes.get(base + graphFile.edgeTo(i)), graphFile.edgeCost(i)));
+        }
+        for (int i = 0; i < graphFile.mudangCount(); i++) {
+            mudang.add(new Mudang(nodes.get(base + graphFile.mudangFrom(i)), nodes.get(base + graphFile.mudangTo(i)), graphFile.mudangCost(i)));
+        }
+        graphChanged(null);
+    }
+
+    // 바이너리 그래프 파일을 힙 밖(OffHeapGraph)에 올려 읽기 전용으로 연다 (비어 있는 GraphManager에서만)
+    // Node/Edge/Mudang 리스트는 만들지 않는다: getNode는 부를 때마다 노드 번호를 id로 한 Node를 만들고
+    // getNodes/getEdges/getMudangs는 읽을 때마다 항목을 만드는 뷰, 이름 색인은 처음 이름으로 찾을 때 만든다
+    // 그래프를 바꾸는 메서드는 IllegalStateException을 던진다
+    public synchronized void openGraphFile(Path file) throws IOException {
+        if (fileGraph != null || !nodes.isEmpty()) {
+            throw new IllegalStateException("비어 있는 GraphManager에서만 그래프 파일을 열 수 있습니다.");
+        }
+        fileGraph = OffHeapGraph.open(file);
+        nodeView = null;
+        nameIndex = null;
+        graphChanged(null);
+    }
+
+    // openGraphFile로 연 그래프 (편집할 수 있는 그래프면 null)
+    public OffHeapGraph getOffHeapGraph() {
+        return fileGraph;
+    }
+
+    private void checkEditable() {
+        if (fileGraph != null) {
+            throw new IllegalStateException("파일에서 연 읽기 전용 그래프는 바꿀 수 없습니다.");
+        }
+    }
+
+    // 음수 비용은 다익스트라와 경로표 갱신의 전제를 깨므로 목록을 바꾸기 전에 막는다
+    private static void checkCost(int cost) {
+        if (cost < 0) {
+            throw new IllegalArgumentException("비용은 0 이상이어야 합니다: " + cost);
+        }
+    }
+
+    // 현재 그래프를 바이너리 그래프 파일로 저장 (한 시점의 사본을 잠근 상태에서 받아 잠금 밖에서 쓴다)
+    public void saveGraphFile(Path file) throws IOException {
+        List<Node> nodeList;
+        List<Edge> edgeList;
+        List<Mudang> mudangList;
+        synchronized (this) {
+            checkEditable();
+            nodeList = getNodes();
+            edgeList = getEdges();
+            mudangList = getMudangs();
+        }
+        GraphFile.write(nodeList, edgeList, mudangList, file);
     }
 
     // 노드 추가
-    public void addNode(String name, int x, int y) {
-        nodes.add(new Node(name, x, y));
+    public synchronized void addNode(String name, int x, int y) {
+        checkEditable();
+        Node node = createNode(name, x, y);
+        graphChanged((table, graph) -> table.addNode(node));
     }
 
     // 엣지 추가
-    public void addEdge(String fromNodeName, String toNodeName, int cost) {
-        Node fromNode = findNodeByName(fromNodeName);
-        Node toNode = findNodeByName(toNodeName);
+    public synchronized void addEdge(String fromNodeName, String toNodeName, int cost) {
+        checkEditable();
+        checkCost(cost);
+        Node fromNode = nodeByName(fromNodeName);
+        Node toNode = nodeByName(toNodeName);
         if (fromNode != null && toNode != null) {
             edges.add(new Edge(fromNode, toNode, cost));
+            graphChanged((table, graph) -> table.addEdge(graph.indexOf(fromNode), graph.indexOf(toNode), cost));
+        }
+    }
+
+    // 무당 구간 추가 (한 방향)
+    public synchronized void addMudang(String fromNodeName, String toNodeName, int cost) {
+        checkEditable();
+        checkCost(cost);
+        Node fromNode = nodeByName(fromNodeName);
+        Node toNode = nodeByName(toNodeName);
+        if (fromNode != null && toNode != null) {
+            mudang.add(new Mudang(fromNode, toNode, cost));
+            graphChanged((table, graph) -> table.updateMudang(graph, graph.indexOf(fromNode), graph.indexOf(toNode), -1, cost));
+        }
+    }
+
+    // 보도 비용 변경 (방향 무관, 같은 보도가 여러 개면 처음 것), 보도가 없으면 false
+    public synchronized boolean updateEdgeCost(String fromNodeName, String toNodeName, int cost) {
+        checkEditable();
+        checkCost(cost);
+        int i = indexOfEdge(fromNodeName, toNodeName);
+        if (i < 0) return false;
+        Edge old = edges.get(i);
+        edges.set(i, new Edge(old.from, old.to, cost));
+        graphChanged((table, graph) -> table.updateEdge(graph, graph.indexOf(old.from), graph.indexOf(old.to), old.cost, cost));
+        return true;
+    }
+
+    // 보도 삭제 (통행 불가), 보도가 없으면 false
+    public synchronized boolean removeEdge(String fromNodeName, String toNodeName) {
+        checkEditable();
+        int i = indexOfEdge(fromNodeName, toNodeName);
+        if (i < 0) return false;
+        Edge old = edges.remove(i);
+        graphChanged((table, graph) -> table.updateEdge(graph, graph.indexOf(old.from), graph.indexOf(old.to), old.cost, -1));
+        return true;
+    }
+
+    // 무당 구간 비용 변경 (켜져 있는 구간만), 구간이 없으면 false
+    public synchronized boolean updateMudangCost(String fromNodeName, String toNodeName, int cost) {
+        checkEditable();
+        checkCost(cost);
+        int i = indexOfMudang(mudang, fromNodeName, toNodeName);
+        if (i < 0) return false;
+        Mudang old = mudang.get(i);
+        Mudang updated = new Mudang(old.from, old.to, cost);
+        mudang.set(i, updated);
+        MudangTimetable timetable = timetables.remove(old);
+        if (timetable != null) timetables.put(updated, timetable);
+        graphChanged((table, graph) -> table.updateMudang(graph, graph.indexOf(old.from), graph.indexOf(old.to), old.cost, cost));
+        return true;
+    }
+
+    // 무당 구간 켜기/끄기 (운행 중단 등), 이미 그 상태거나 구간이 없으면 false
+    public synchronized boolean setMudangEnabled(String fromNodeName, String toNodeName, boolean enabled) {
+        checkEditable();
+        List<Mudang> source = enabled ? disabledMudangs : mudang;
+        int i = indexOfMudang(source, fromNodeName, toNodeName);
+        if (i < 0) return false;
+        Mudang line = source.remove(i);
+        (enabled ? mudang : disabledMudangs).add(line);
+        int oldCost = enabled ? -1 : line.cost;
+        int newCost = enabled ? line.cost : -1;
+        graphChanged((table, graph) -> table.updateMudang(graph, graph.indexOf(line.from), graph.indexOf(line.to), oldCost, newCost));
+        return true;
+    }
+
+    // 무당 구간 시간표 설정 (null이면 시간표 없음), 구간이 없으면 false
+    public synchronized boolean setMudangTimetable(String fromNodeName, String toNodeName, MudangTimetable timetable) {
+        int i = indexOfMudang(mudang, fromNodeName, toNodeName);
+        List<Mudang> source = mudang;
+        if (i < 0) {
+            i = indexOfMudang(disabledMudangs, fromNodeName, toNodeName);
+            source = disabledMudangs;
+        }
+        if (i < 0) return false;
+        if (timetable == null) timetables.remove(source.get(i));
+        else timetables.put(source.get(i), timetable);
+        timeRouter = null;
+        return true;
+    }
+
+    public synchronized MudangTimetable getMudangTimetable(Mudang line) {
+        return timetables.get(line);
+    }
+
+    private int indexOfEdge(String fromNodeName, String toNodeName) {
+        int from = nodeId(fromNodeName);
+        int to = nodeId(toNodeName);
+        if (from < 0 || to < 0) return -1;
+        for (int i = 0; i < edges.size(); i++) {
+            Edge edge = edges.get(i);
+            if ((edge.from.id == from && edge.to.id == to) || (edge.from.id == to && edge.to.id == from)) {
+                return i;
+            }
         }
+        return -1;
+    }
+
+    private int indexOfMudang(List<Mudang> lines, String fromNodeName, String toNodeName) {
+        int from = nodeId(fromNodeName);
+        int to = nodeId(toNodeName);
+        if (from < 0 || to < 0) return -1;
+        for (int i = 0; i < lines.size(); i++) {
+            Mudang line = lines.get(i);
+            if (line.from.id == from && line.to.id == to) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // 변경을 반영한 새 스냅샷을 발행한다 (잠근 상태에서 호출)
+    // 만들어 둔 경로표는 사본을 떠서 repair로 영향받은 부분만 고치고, repair가 null이면 버린다
+    // 이전 스냅샷을 쥐고 있는 탐색은 끝날 때까지 이전 그래프/경로표를 그대로 쓴다
+    private void graphChanged(BiConsumer<RouteTable, CompactGraph> repair) {
+        Snapshot current = snapshot;
+        CompactGraph graph = null;
+        RouteTable[] tables = new RouteTable[2];
+        for (int slot = 0; slot < tables.length; slot++) {
+            // 노드가 RouteTable.MAX_NODES를 넘으면 경로표는 버리고 findPath가 탐색으로 대신한다
+            if (repair == null || current.routeTables[slot] == null || nodes.size() > RouteTable.MAX_NODES) continue;
+            if (graph == null) {
+                graph = buildCompactGraph();
+            }
+            tables[slot] = current.routeTables[slot].copy();
+            repair.accept(tables[slot], graph);
+        }
+        Arrays.fill(hierarchies, null);
+        timeRouter = null;
+        edgeView = null;
+        mudangView = null;
+        snapshot = new Snapshot(current.version + 1, graph, tables);
+    }
+
+    // 다음 id를 붙여 노드를 만들고 이름 색인에 넣는다
+    private Node createNode(String name, int x, int y) {
+        Node node = new Node(nodes.size(), name, x, y);
+        nodes.add(node);
+        // 이름으로 id를 찾은 쪽이 옛 사본을 받지 않도록 사본을 먼저 버린다
+        nodeView = null;
+        idsByName.putIfAbsent(name, node.id);
+        nameIndex = null;
+        return node;
     }
 
-    // 노드 검색
+    // 노드 검색 (같은 이름이 여럿이면 먼저 추가한 노드), 없으면 null
     public Node findNodeByName(String name) {
-        return nodes.stream().filter(node -> node.name.equals(name)).findFirst().orElse(null);
+        int id = nodeId(name);
+        return id < 0 ? null : getNode(id);
     }
 
-    // 생성자
+    // 잠근 상태에서 원본 리스트로 찾는다 (노드를 추가하는 중간에 사본을 다시 만들지 않도록)
+    private Node nodeByName(String name) {
+        int id = nodeId(name);
+        return id < 0 ? null : nodes.get(id);
+    }
+
+    // 이름 -> 노드 id (없으면 -1)
+    public int nodeId(String name) {
+        if (fileGraph != null) return name == null ? -1 : getNameIndex().idOf(name);
+        Integer id = name == null ? null : idsByName.get(name);
+        return id == null ? -1 : id;
+    }
+
+    public Node getNode(int id) {
+        OffHeapGraph file = fileGraph;
+        if (file != null) {
+            return new Node(id, file.name(id), file.x(id), file.y(id));
+        }
+        return getNodes().get(id);
+    }
+
+    // 파일 그래프에서 node가 가리키는 노드 번호 (id 자리의 좌표가 같아야 한다), 없으면 -1
+    private static int fileIndexOf(OffHeapGraph file, Node node) {
+        int id = node.id;
+        boolean same = id >= 0 && id < file.nodeCount() && file.x(id) == node.x && file.y(id) == node.y;
+        return same ? id : -1;
+    }
+
+    // 이름 앞부분(초성만 쳐도 된다)으로 노드 검색, 자동 완성용
+    public List<Node> searchNodes(String prefix, int limit) {
+        return getNameIndex().searchNodes(prefix, limit);
+    }
+
+    public NodeNameIndex getNameIndex() {
+        NodeNameIndex current = nameIndex;
+        if (current != null) return current;
+        synchronized (this) {
+            if (nameIndex == null) {
+                // 파일 그래프는 이름을 힙에 모으지 않고 힙 밖에 둔 키 순서로 찾는다
+                OffHeapGraph file = fileGraph;
+                nameIndex = file != null ? NodeNameIndex.of(file, this::getNode) : new NodeNameIndex(getNodes());
+            }
+            return nameIndex;
+        }
+    }
+
+    // 그래프 버전 (그래프가 바뀔 때마다 증가)
+    public long getVersion() {
+        return snapshot.version;
+    }
+
+    // 노드/엣지/무당을 압축한 탐색용 그래프
+    public CompactGraph getCompactGraph() {
+        Snapshot current = snapshot;
+        return current.graph != null ? current.graph : ready(-1).graph;
+    }
+
+    // 전체 쌍 경로표 (그래프가 바뀌면 변경 메서드에서 점진적으로 갱신된다), 노드가 RouteTable.MAX_NODES보다 많으면 null
+    public RouteTable getRouteTable(boolean includeMudang) {
+        return ready(includeMudang ? 1 : 0).routeTables[includeMudang ? 1 : 0];
+    }
+
+    // 그래프(와 slot >= 0 이면 그 경로표)가 들어 있는 스냅샷, 없으면 잠그고 만들어 발행한다
+    // 노드가 RouteTable.MAX_NODES보다 많으면 경로표는 만들지 않는다 (routeTables[slot]이 null로 남는다)
+    private Snapshot ready(int slot) {
+        Snapshot current = snapshot;
+        if (current.graph != null && (slot < 0 || current.routeTables[slot] != null || !fitsRouteTable(current.graph))) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            CompactGraph graph = current.graph != null ? current.graph : buildCompactGraph();
+            RouteTable[] tables = current.routeTables;
+            if (slot >= 0 && tables[slot] == null && fitsRouteTable(graph)) {
+                tables = tables.clone();
+                tables[slot] = RouteTable.build(graph, slot == 1);
+            }
+            if (graph != current.graph || tables != current.routeTables) {
+                snapshot = new Snapshot(current.version, graph, tables);
+            }
+            return snapshot;
+        }
+    }
+
+    // 잠근 상태에서 호출 (파일 그래프면 힙 밖 배열을 복사하고 Node는 만들지 않는다)
+    private CompactGraph buildCompactGraph() {
+        OffHeapGraph file = fileGraph;
+        return file != null ? CompactGraph.of(file, this::getNode) : CompactGraph.build(nodes, edges, mudang);
+    }
+
+    private static boolean fitsRouteTable(CompactGraph graph) {
+        return graph.nodeCount() <= RouteTable.MAX_NODES;
+    }
+
+    // Contraction Hierarchies (cacheFile에 같은 그래프로 만든 결과가 있으면 읽어서 쓴다)
+    public synchronized ContractionHierarchy getContractionHierarchy(boolean includeMudang, Path cacheFile) {
+        int slot = includeMudang ? 1 : 0;
+        if (hierarchies[slot] == null) {
+            hierarchies[slot] = ContractionHierarchy.loadOrBuild(getCompactGraph(), includeMudang, cacheFile);
+        }
+        return hierarchies[slot];
+    }
+
+    // 노드가 RouteTable.MAX_NODES보다 많을 때 findPath를 CH로 처리한다
+    // CH는 graphFile 옆 파일(무당 포함 graphFile.ch, 보도만 graphFile.walk.ch)에서 읽고, 없거나 그래프가 다르면 만들어 저장한다
+    // GUI 기본값인 무당 포함 CH는 여기서 미리 읽어 두므로 첫 경로 요청이 전처리를 기다리지 않는다
+    public void useContractionHierarchy(Path graphFile) {
+        synchronized (this) {
+            hierarchyBase = graphFile;
+        }
+        if (!fitsRouteTable(getCompactGraph())) {
+            largeGraphHierarchy(true);
+        }
+    }
+
+    private synchronized boolean usesContractionHierarchy() {
+        return hierarchyBase != null;
+    }
+
+    private ContractionHierarchy largeGraphHierarchy(boolean includeMudang) {
+        Path base;
+        synchronized (this) {
+            base = hierarchyBase;
+        }
+        if (base == null) return null;
+        String suffix = includeMudang ? ".ch" : ".walk.ch";
+        return getContractionHierarchy(includeMudang, base.resolveSibling(base.getFileName() + suffix));
+    }
+
+    // 무당 시간표를 반영한 출발 시각별 탐색기
+    public synchronized TimeDependentRouter getTimeDependentRouter() {
+        if (timeRouter == null) {
+            List<Mudang> lines = getMudangs();
+            MudangTimetable[] byId = new MudangTimetable[lines.size()];
+            for (int i = 0; i < byId.length; i++) {
+                byId[i] = timetables.get(lines.get(i));
+            }
+            timeRouter = new TimeDependentRouter(getCompactGraph(), byId);
+        }
+        return timeRouter;
+    }
+
+    // 경로표를 따라 최단 경로 조회 (같은 스냅샷의 그래프와 경로표를 쓴다)
+    // 노드가 많아 경로표가 없으면 CH(useContractionHierarchy로 켠 경우), 아니면 Dijkstra로 탐색한다
+    // 파일에서 연 그래프는 CH를 켜지 않았으면 힙 배열(CompactGraph)이나 경로표를 만들지 않고 힙 밖 그래프에서 바로 탐색한다
+    public List<PathSegment> findPath(Node start, Node end, boolean includeMudang) {
+        OffHeapGraph file = fileGraph;
+        if (file != null && !usesContractionHierarchy()) {
+            int source = fileIndexOf(file, start);
+            int target = fileIndexOf(file, end);
+            if (source < 0 || target < 0) {
+                return Collections.emptyList();
+            }
+            return DijkstraEngine.route(file, source, target, includeMudang, this::getNode);
+        }
+        int slot = includeMudang ? 1 : 0;
+        Snapshot current = ready(slot);
+        int source = current.graph.indexOf(start);
+        int target = current.graph.indexOf(end);
+        if (source < 0 || target < 0) {
+            return Collections.emptyList();
+        }
+        RouteTable table = current.routeTables[slot];
+        if (table == null) {
+            // 그 사이 그래프가 바뀌어 CH가 다른 스냅샷으로 만들어졌으면 인덱스가 맞지 않으므로 탐색으로
+            ContractionHierarchy hierarchy = largeGraphHierarchy(includeMudang);
+            if (hierarchy != null && hierarchy.graph() == current.graph) {
+                return hierarchy.route(source, target);
+            }
+            return DijkstraEngine.route(current.graph, source, target, includeMudang);
+        }
+        return table.route(source, target);
+    }
+
+    // start에서 targets 각각까지의 최단 거리 (도달 불가 / 없는 노드는 Integer.MAX_VALUE)
+    public int[] distances(Node start, List<Node> targets, boolean includeMudang) {
+        CompactGraph graph = getCompactGraph();
+        return DistanceMatrix.distances(graph, graph.indexOf(start), indicesOf(graph, targets), includeMudang);
+    }
+
+    // result[i * targets.size() + j] = starts[i]에서 targets[j]까지의 최단 거리
+    public int[] distanceMatrix(List<Node> starts, List<Node> targets, boolean includeMudang) {
+        CompactGraph graph = getCompactGraph();
+        return DistanceMatrix.matrix(graph, indicesOf(graph, starts), indicesOf(graph, targets), includeMudang);
+    }
+
+    private static int[] indicesOf(CompactGraph graph, List<Node> targets) {
+        int[] indices = new int[targets.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = graph.indexOf(targets.get(i));
+        }
+        return indices;
+    }
+
+    // 현재 노드 목록의 불변 사본 (그래프가 바뀌어도 받은 리스트는 그대로다)
+    // 파일에서 연 그래프면 읽을 때마다 항목을 만드는 읽기 전용 뷰 (같은 위치의 항목은 equals지만 같은 객체는 아니다)
     public List<Node> getNodes() {
-        return nodes;
+        List<Node> view = nodeView;
+        if (view != null) return view;
+        synchronized (this) {
+            if (nodeView == null) {
+                OffHeapGraph file = fileGraph;
+                nodeView = file != null ? lazyList(file.nodeCount(), this::getNode) : List.copyOf(nodes);
+            }
+            return nodeView;
+        }
     }
 
     public List<Edge> getEdges() {
-        return edges;
+        List<Edge> view = edgeView;
+        if (view != null) return view;
+        synchronized (this) {
+            if (edgeView == null) {
+                OffHeapGraph file = fileGraph;
+                edgeView = file != null
+                        ? lazyList(file.edgeCount(), e -> new Edge(getNode(file.edgeFrom(e)), getNode(file.edgeTo(e)), file.edgeCost(e)))
+                        : List.copyOf(edges);
+            }
+            return edgeView;
+        }
     }
 
+    // 켜져 있는 무당 구간
     public List<Mudang> getMudangs() {
-        return mudang;
+        List<Mudang> view = mudangView;
+        if (view != null) return view;
+        synchronized (this) {
+            if (mudangView == null) {
+                OffHeapGraph file = fileGraph;
+                mudangView = file != null
+                        ? lazyList(file.mudangCount(), k -> new Mudang(getNode(file.mudangSource(k)), getNode(file.mudangTarget(k)), file.mudangWeight(k)))
+                        : List.copyOf(mudang);
+            }
+            return mudangView;
+        }
+    }
+
+    // i번째 항목을 읽을 때마다 만드는 읽기 전용 목록
+    private static <T> List<T> lazyList(int size, IntFunction<T> element) {
+        return new AbstractList<T>() {
+            @Override
+            public T get(int index) {
+                if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+                return element.apply(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
     }
 }
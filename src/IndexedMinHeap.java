@@ -0,0 +1,110 @@
+import java.util.Arrays;
+
+// 노드 인덱스를 원소로 하는 이진 최소 힙
+// 노드별 힙 위치를 기억해 decrease-key를 O(log n)에 처리하고, 오래된 항목이 남지 않는다
+final class IndexedMinHeap {
+    private int[] heap = new int[16];   // 힙 슬롯 -> 노드
+    private int[] keys = new int[16];   // 힙 슬롯 -> 키
+    private int[] position = new int[0]; // 노드 -> 힙 슬롯 (-1이면 힙에 없음)
+    private int size;
+    // clear 이후 삽입 / 키 감소 횟수 (탐색 통계용)
+    int pushes;
+    int decreases;
+
+    // 노드 수에 맞게 위치 배열을 늘린다 (기존 내용은 유지)
+    void ensureCapacity(int nodeCount) {
+        if (position.length < nodeCount) {
+            int old = position.length;
+            position = Arrays.copyOf(position, Math.max(nodeCount, old * 2));
+            Arrays.fill(position, old, position.length, -1);
+        }
+    }
+
+    // 남아 있는 원소만 지우므로 비용은 힙 크기에 비례
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+        pushes = 0;
+        decreases = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int node) {
+        return position[node] >= 0;
+    }
+
+    int peekKey() {
+        return keys[0];
+    }
+
+    // 새 노드는 삽입하고, 이미 있는 노드는 키가 작아질 때만 갱신
+    void insertOrDecrease(int node, int key) {
+        int slot = position[node];
+        if (slot < 0) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            slot = size++;
+            pushes++;
+        } else if (key >= keys[slot]) {
+            return;
+        } else {
+            decreases++;
+        }
+        siftUp(slot, node, key);
+    }
+
+    // 키가 가장 작은 노드를 꺼낸다
+    int poll() {
+        int top = heap[0];
+        position[top] = -1;
+        if (--size > 0) {
+            siftDown(0, heap[size], keys[size]);
+        }
+        return top;
+    }
+
+    private void siftUp(int slot, int node, int key) {
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            move(parent, slot);
+            slot = parent;
+        }
+        place(slot, node, key);
+    }
+
+    private void siftDown(int slot, int node, int key) {
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+            if (key <= keys[child]) break;
+            move(child, slot);
+            slot = child;
+        }
+        place(slot, node, key);
+    }
+
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        keys[to] = keys[from];
+        position[heap[to]] = to;
+    }
+
+    private void place(int slot, int node, int key) {
+        heap[slot] = node;
+        keys[slot] = key;
+        position[node] = slot;
+    }
+}
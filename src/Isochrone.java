@@ -0,0 +1,132 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// 한 출발지에서 비용 예산 안에 도달할 수 있는 노드들 (등시선, isochrone)
+// 가장 큰 예산까지만 Dijkstra를 돌리고 확정 순서(거리 오름차순)를 기록하므로,
+// 그보다 작은 예산은 다시 탐색하지 않고 이분 탐색으로 답한다
+public final class Isochrone {
+    private final CompactGraph graph;
+    private final int source;
+    private final int maxBudget;
+    private final boolean useMudang;
+    private final int[] order;         // 확정 순서대로 노드 번호
+    private final int[] orderDistance; // 그 노드까지의 거리 (오름차순)
+    private final int[] distance;      // 노드 번호 -> 거리 (maxBudget을 넘으면 Integer.MAX_VALUE)
+
+    private Isochrone(CompactGraph graph, int source, int maxBudget, boolean useMudang,
+                      int[] order, int[] orderDistance, int[] distance) {
+        this.graph = graph;
+        this.source = source;
+        this.maxBudget = maxBudget;
+        this.useMudang = useMudang;
+        this.order = order;
+        this.orderDistance = orderDistance;
+        this.distance = distance;
+    }
+
+    // source에서 비용 maxBudget 이하로 갈 수 있는 노드를 모두 구한다 (거리가 예산을 넘는 노드를 꺼내면 멈춘다)
+    public static Isochrone compute(CompactGraph graph, int source, int maxBudget, boolean useMudang) {
+        int n = graph.nodeCount();
+        SearchWorkspace workspace = SearchWorkspace.current(n);
+        IndexedMinHeap heap = workspace.heap;
+        int[] order = new int[16];
+        int count = 0;
+        workspace.update(source, 0, -1, SearchWorkspace.NO_ARC);
+        heap.insertOrDecrease(source, 0);
+
+        while (!heap.isEmpty() && heap.peekKey() <= maxBudget) {
+            int current = heap.poll();
+            workspace.settle(current);
+            if (count == order.length) order = Arrays.copyOf(order, count * 2);
+            order[count++] = current;
+            int base = workspace.distance[current];
+            workspace.scannedArcs += graph.outDegree(current, useMudang);
+
+            for (int i = graph.walkOffsets[current], end = graph.walkOffsets[current + 1]; i < end; i++) {
+                relax(workspace, current, graph.walkTargets[i], base + graph.walkWeights[i], i, maxBudget);
+            }
+            if (!useMudang) continue;
+            for (int i = graph.mudangOffsets[current], end = graph.mudangOffsets[current + 1]; i < end; i++) {
+                relax(workspace, current, graph.mudangTargets[i], base + graph.mudangWeights[i], ~i, maxBudget);
+            }
+        }
+        workspace.finish(SearchStats.Kind.ISOCHRONE);
+
+        order = Arrays.copyOf(order, count);
+        int[] orderDistance = new int[count];
+        int[] distance = new int[n];
+        Arrays.fill(distance, Integer.MAX_VALUE);
+        for (int i = 0; i < count; i++) {
+            orderDistance[i] = workspace.distance[order[i]];
+            distance[order[i]] = orderDistance[i];
+        }
+        return new Isochrone(graph, source, maxBudget, useMudang, order, orderDistance, distance);
+    }
+
+    // 예산을 넘는 이웃은 힙에 넣지 않는다
+    private static void relax(SearchWorkspace workspace, int current, int neighbor, int newDistance, int arc, int maxBudget) {
+        if (newDistance > maxBudget || workspace.isSettled(neighbor) || newDistance >= workspace.distanceOf(neighbor)) return;
+        workspace.update(neighbor, newDistance, current, arc);
+        workspace.heap.insertOrDecrease(neighbor, newDistance);
+    }
+
+    public CompactGraph graph() {
+        return graph;
+    }
+
+    public int source() {
+        return source;
+    }
+
+    public int maxBudget() {
+        return maxBudget;
+    }
+
+    public boolean usesMudang() {
+        return useMudang;
+    }
+
+    // budget(<= maxBudget) 이하로 갈 수 있는 노드 수, 가까운 순서로 앞에서부터 이만큼이 해당된다
+    public int countWithin(int budget) {
+        checkBudget(budget);
+        int low = 0;
+        int high = orderDistance.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (orderDistance[mid] <= budget) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // budget 이하로 갈 수 있는 노드 (가까운 순)
+    public List<Node> nodesWithin(int budget) {
+        int count = countWithin(budget);
+        List<Node> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            nodes.add(graph.node(order[i]));
+        }
+        return nodes;
+    }
+
+    // 가까운 순서로 i번째 노드 번호와 그 거리
+    public int node(int i) {
+        return order[i];
+    }
+
+    public int distanceAt(int i) {
+        return orderDistance[i];
+    }
+
+    // 노드 번호 -> 거리 (maxBudget 안에 못 가면 Integer.MAX_VALUE)
+    public int distanceOf(int node) {
+        return distance[node];
+    }
+
+    private void checkBudget(int budget) {
+        if (budget > maxBudget) {
+            throw new IllegalArgumentException("예산 " + budget + "이 탐색한 최대 예산 " + maxBudget + "보다 큽니다.");
+        }
+    }
+}
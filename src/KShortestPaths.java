@@ -0,0 +1,269 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// 비용 순으로 k개의 루프 없는 경로 (Yen 알고리즘 + Lawler 개선)
+// 도착지에서 거꾸로 한 번 구한 최단 거리 트리를 모든 spur 탐색의 A* 휴리스틱으로 재사용한다
+// 막힌 노드/arc가 없으면 휴리스틱이 정확한 거리라서 spur 탐색은 거의 경로 위 노드만 확정한다
+public final class KShortestPaths {
+    // 비슷한 경로를 걸러낼 때 살펴볼 최대 경로 수 = k * 이 값
+    static final int EXAMINE_FACTOR = 16;
+
+    private KShortestPaths() {
+    }
+
+    // 비용 오름차순으로 최대 k개의 경로
+    public static List<PathInfo> find(CompactGraph graph, int source, int target, int k, boolean useMudang) {
+        return find(graph, source, target, k, useMudang, 1.0);
+    }
+
+    // maxSimilarity: 새 경로의 비용 중 이미 고른 어떤 경로와 겹치는 구간의 비율이 이 값을 넘으면 버린다 (1.0이면 거르지 않음)
+    public static List<PathInfo> find(CompactGraph graph, int source, int target, int k, boolean useMudang, double maxSimilarity) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k는 1 이상이어야 합니다: " + k);
+        }
+        List<PathInfo> result = new ArrayList<>();
+        if (source == target) {
+            return result;
+        }
+        int n = graph.nodeCount();
+        int[] toTarget = reverseDistances(graph, target, useMudang);
+        if (toTarget[source] == Integer.MAX_VALUE) {
+            return result;
+        }
+
+        Path first = spurPath(graph, source, target, useMudang, toTarget, new boolean[n], null, 0);
+        List<Path> shortest = new ArrayList<>();
+        List<Set<Long>> chosen = new ArrayList<>();
+        PriorityQueue<Path> candidates = new PriorityQueue<>((a, b) -> Integer.compare(a.cost, b.cost));
+        Set<Path> seen = new HashSet<>();
+        seen.add(first);
+        candidates.add(first);
+
+        boolean[] blockedNodes = new boolean[n];
+        int limit = maxSimilarity >= 1.0 ? k : k * EXAMINE_FACTOR;
+        while (result.size() < k && shortest.size() < limit && !candidates.isEmpty()) {
+            Path path = candidates.poll();
+            shortest.add(path);
+            Set<Long> pairs = segmentKeys(path);
+            if (isDiverse(graph, path, chosen, maxSimilarity)) {
+                chosen.add(pairs);
+                result.add(PathInfo.fromPath(graph.node(source), graph.node(target), toSegments(graph, path)));
+            }
+
+            // 이전 경로가 갈라진 지점보다 앞에서 갈라지는 후보는 이미 만들었으므로 그 지점부터만 본다 (Lawler)
+            int rootCost = 0;
+            for (int i = 0; i < path.deviation; i++) {
+                blockedNodes[path.nodes[i]] = true;
+                rootCost += arcWeight(graph, path.arcs[i]);
+            }
+            for (int i = path.deviation; i < path.arcs.length; i++) {
+                int spur = path.nodes[i];
+                int[] blockedArcs = blockedArcs(shortest, path, i);
+                Path spurPath = spurPath(graph, spur, target, useMudang, toTarget, blockedNodes, blockedArcs, i);
+                if (spurPath != null) {
+                    Path candidate = Path.join(path, i, rootCost, spurPath);
+                    if (seen.add(candidate)) candidates.add(candidate);
+                }
+                blockedNodes[spur] = true;
+                rootCost += arcWeight(graph, path.arcs[i]);
+            }
+            Arrays.fill(blockedNodes, false);
+        }
+        return result;
+    }
+
+    // 도착지까지의 최단 거리 (보도는 양방향, 무당은 들어오는 방향으로 거꾸로 탐색)
+    private static int[] reverseDistances(CompactGraph graph, int target, boolean useMudang) {
+        int n = graph.nodeCount();
+        SearchWorkspace workspace = SearchWorkspace.backward(n);
+        IndexedMinHeap heap = workspace.heap;
+        workspace.update(target, 0, -1, SearchWorkspace.NO_ARC);
+        heap.insertOrDecrease(target, 0);
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            workspace.settle(current);
+            int base = workspace.distance[current];
+            workspace.scannedArcs += graph.inDegree(current, useMudang);
+            for (int i = graph.walkOffsets[current], end = graph.walkOffsets[current + 1]; i < end; i++) {
+                relax(workspace, current, graph.walkTargets[i], base + graph.walkWeights[i], i, base + graph.walkWeights[i]);
+            }
+            if (!useMudang) continue;
+            for (int k = graph.mudangInOffsets[current], end = graph.mudangInOffsets[current + 1]; k < end; k++) {
+                int arc = graph.mudangInArcs[k];
+                int newDistance = base + graph.mudangWeights[arc];
+                relax(workspace, current, graph.mudangInSources[k], newDistance, ~arc, newDistance);
+            }
+        }
+        workspace.finish(SearchStats.Kind.K_SHORTEST);
+        int[] distances = new int[n];
+        for (int v = 0; v < n; v++) {
+            distances[v] = workspace.distanceOf(v);
+        }
+        return distances;
+    }
+
+    // spur 노드에서 도착지까지, 막힌 노드와 spur 노드에서 나가는 막힌 arc를 피하는 A* (없으면 null)
+    private static Path spurPath(CompactGraph graph, int spur, int target, boolean useMudang, int[] toTarget,
+                                 boolean[] blockedNodes, int[] blockedArcs, int deviation) {
+        SearchWorkspace workspace = SearchWorkspace.current(graph.nodeCount());
+        IndexedMinHeap heap = workspace.heap;
+        workspace.update(spur, 0, -1, SearchWorkspace.NO_ARC);
+        heap.insertOrDecrease(spur, toTarget[spur]);
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            workspace.settle(current);
+            if (current == target) break;
+            int base = workspace.distance[current];
+            workspace.scannedArcs += graph.outDegree(current, useMudang);
+            int[] blocked = current == spur ? blockedArcs : null;
+
+            for (int i = graph.walkOffsets[current], end = graph.walkOffsets[current + 1]; i < end; i++) {
+                int neighbor = graph.walkTargets[i];
+                if (blockedNodes[neighbor] || toTarget[neighbor] == Integer.MAX_VALUE || contains(blocked, i)) continue;
+                int newDistance = base + graph.walkWeights[i];
+                relax(workspace, current, neighbor, newDistance, i, newDistance + toTarget[neighbor]);
+            }
+            if (!useMudang) continue;
+            for (int i = graph.mudangOffsets[current], end = graph.mudangOffsets[current + 1]; i < end; i++) {
+                int neighbor = graph.mudangTargets[i];
+                if (blockedNodes[neighbor] || toTarget[neighbor] == Integer.MAX_VALUE || contains(blocked, ~i)) continue;
+                int newDistance = base + graph.mudangWeights[i];
+                relax(workspace, current, neighbor, newDistance, ~i, newDistance + toTarget[neighbor]);
+            }
+        }
+        workspace.finish(SearchStats.Kind.K_SHORTEST);
+        if (!workspace.isSettled(target)) {
+            return null;
+        }
+
+        int length = 0;
+        for (int v = target; v != spur; v = workspace.parent[v]) {
+            length++;
+        }
+        int[] nodes = new int[length + 1];
+        int[] arcs = new int[length];
+        for (int v = target, i = length; i >= 0; v = workspace.parent[v], i--) {
+            nodes[i] = v;
+            if (i > 0) arcs[i - 1] = workspace.parentArc[v];
+        }
+        return new Path(nodes, arcs, workspace.distance[target], deviation);
+    }
+
+    private static void relax(SearchWorkspace workspace, int current, int neighbor, int newDistance, int arc, int key) {
+        if (workspace.isSettled(neighbor) || newDistance >= workspace.distanceOf(neighbor)) return;
+        workspace.update(neighbor, newDistance, current, arc);
+        workspace.heap.insertOrDecrease(neighbor, key);
+    }
+
+    // 이미 구한 경로 중 path와 spur 노드까지 같은 경로들이 spur 노드에서 나간 arc
+    private static int[] blockedArcs(List<Path> shortest, Path path, int spurIndex) {
+        int[] blocked = new int[shortest.size()];
+        int count = 0;
+        for (Path other : shortest) {
+            if (other.arcs.length > spurIndex && sharesRoot(other, path, spurIndex)) {
+                blocked[count++] = other.arcs[spurIndex];
+            }
+        }
+        return Arrays.copyOf(blocked, count);
+    }
+
+    private static boolean sharesRoot(Path a, Path b, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a.arcs[i] != b.arcs[i]) return false;
+        }
+        return true;
+    }
+
+    private static boolean contains(int[] values, int value) {
+        if (values == null) return false;
+        for (int v : values) {
+            if (v == value) return true;
+        }
+        return false;
+    }
+
+    // 이미 고른 경로들과 겹치는 비용 비율이 모두 maxSimilarity 이하인지
+    private static boolean isDiverse(CompactGraph graph, Path path, List<Set<Long>> chosen, double maxSimilarity) {
+        if (maxSimilarity >= 1.0 || path.cost == 0) return true;
+        for (Set<Long> other : chosen) {
+            long shared = 0;
+            for (int i = 0; i < path.arcs.length; i++) {
+                if (other.contains(segmentKey(path.nodes[i], path.nodes[i + 1], path.arcs[i] < 0))) {
+                    shared += arcWeight(graph, path.arcs[i]);
+                }
+            }
+            if (shared > maxSimilarity * path.cost) return false;
+        }
+        return true;
+    }
+
+    private static Set<Long> segmentKeys(Path path) {
+        Set<Long> keys = new HashSet<>();
+        for (int i = 0; i < path.arcs.length; i++) {
+            keys.add(segmentKey(path.nodes[i], path.nodes[i + 1], path.arcs[i] < 0));
+        }
+        return keys;
+    }
+
+    // 보도는 방향과 상관없이 같은 구간으로 본다
+    private static long segmentKey(int from, int to, boolean mudang) {
+        if (!mudang && from > to) {
+            int swap = from;
+            from = to;
+            to = swap;
+        }
+        return ((long) from << 32 | to) << 1 | (mudang ? 1 : 0);
+    }
+
+    private static int arcWeight(CompactGraph graph, int arc) {
+        return arc < 0 ? graph.mudangWeights[~arc] : graph.walkWeights[arc];
+    }
+
+    private static List<PathSegment> toSegments(CompactGraph graph, Path path) {
+        List<PathSegment> segments = new ArrayList<>(path.arcs.length);
+        for (int i = 0; i < path.arcs.length; i++) {
+            int arc = path.arcs[i];
+            segments.add(new PathSegment(graph.node(path.nodes[i]), graph.node(path.nodes[i + 1]), arc < 0, arcWeight(graph, arc)));
+        }
+        return segments;
+    }
+
+    // 노드/arc 번호 배열로 표현한 경로, deviation은 이 경로가 앞 경로에서 갈라져 나온 위치
+    private static final class Path {
+        final int[] nodes;
+        final int[] arcs;
+        final int cost;
+        final int deviation;
+
+        Path(int[] nodes, int[] arcs, int cost, int deviation) {
+            this.nodes = nodes;
+            this.arcs = arcs;
+            this.cost = cost;
+            this.deviation = deviation;
+        }
+
+        // root의 앞 spurIndex개 구간 + spur 경로
+        static Path join(Path root, int spurIndex, int rootCost, Path spur) {
+            int[] nodes = Arrays.copyOf(root.nodes, spurIndex + spur.nodes.length);
+            System.arraycopy(spur.nodes, 0, nodes, spurIndex, spur.nodes.length);
+            int[] arcs = Arrays.copyOf(root.arcs, spurIndex + spur.arcs.length);
+            System.arraycopy(spur.arcs, 0, arcs, spurIndex, spur.arcs.length);
+            return new Path(nodes, arcs, rootCost + spur.cost, spurIndex);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Path && Arrays.equals(arcs, ((Path) o).arcs);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(arcs);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// 지연 시간 분포를 잠금 없이 기록하는 히스토그램 (마이크로초 단위)
+// 2의 거듭제곱 구간마다 SUB_BUCKETS칸으로 나눈 로그-선형 버킷이라 백분위 값의 상대 오차는 1/SUB_BUCKETS 이하다
+// 여러 스레드가 동시에 record해도 되고, 읽는 쪽은 그 순간의 근사 스냅샷을 본다
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        record(nanos / 1000);
+    }
+
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public double mean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    // 전체 기록 중 fraction(0 ~ 1) 비율이 이 값 이하인 지연 시간 (버킷 상한), 기록이 없으면 0
+    public long percentile(double fraction) {
+        long total = count.get();
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(upperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    // 0 ~ SUB_BUCKETS-1은 값 그대로, 그 위로는 (최상위 비트 위치, 그 아래 SUB_BITS 비트)로 칸을 정한다
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long mantissa = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return shift >= 59 ? Long.MAX_VALUE : ((mantissa + 1) << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.1fus, p50=%dus, p90=%dus, p99=%dus, max=%dus",
+                count(), mean(), percentile(0.5), percentile(0.9), percentile(0.99), max());
+    }
+}
@@ -1,13 +1,50 @@
 import javax.swing.SwingUtilities;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 
 //실행만 담당하는 클래스
 
 public class Main {
-    public static void main(String[] args) {
-        // 그래프 관리 클래스 생성
+    public static void main(String[] args) throws IOException {
+        // CSV 그래프를 바이너리 그래프 파일로 변환만 하고 종료: --compile graph.csv graph.bin
+        if (args.length >= 3 && args[0].equals("--compile")) {
+            GraphImporter.compile(Paths.get(args[1]), Paths.get(args[2]));
+            return;
+        }
+
+        // 그래프 관리 클래스 생성 (--graph graph.bin 이 있으면 파일을 힙 밖에 읽어 읽기 전용으로 연다)
         GraphManager graphManager = new GraphManager();
-        graphManager.initializeData();
+        String graphFile = optionValue(args, "--graph");
+        if (graphFile != null) {
+            graphManager.openGraphFile(Paths.get(graphFile));
+            // 기본은 힙 밖 그래프를 Dijkstra로 바로 탐색한다 (힙이 그래프 크기와 상관없이 일정하다)
+            // --ch면 CH를 graph.bin.ch에서 읽거나 만들어 두고 경로 조회에 쓴다 (빠르지만 CH용 int 배열을 힙에 둔다)
+            if (hasFlag(args, "--ch")) {
+                graphManager.useContractionHierarchy(Paths.get(graphFile));
+            }
+        } else {
+            graphManager.initializeData();
+        }
+
+        // 탐색 통계: JMX(campus.routing:type=SearchStats)로 켜고 끌 수 있고, --stats면 처음부터 켠다
+        SearchStats.registerMBean();
+        if (hasFlag(args, "--stats")) {
+            SearchStats.setEnabled(true);
+        }
+
+        // GUI 없이 배치 계산: --batch [--input 파일] [--output 파일] [--format csv|json] [--threads N]
+        if (hasFlag(args, "--batch")) {
+            BatchRouter.run(graphManager, args);
+            if (SearchStats.isEnabled()) System.err.print(SearchStats.dump());
+            return;
+        }
+
+        // GUI 없이 HTTP 경로 서버 실행: --serve [--host 주소] [--port N] [--threads N]
+        if (hasFlag(args, "--serve")) {
+            RoutingServer.run(graphManager, args);
+            return;
+        }
 
         //엣지 노드 동적 추가 기능
 //        graphManager.addNode("새로운 노드", 600, 600);
@@ -15,11 +52,22 @@ public class Main {
 
         // GUI 실행
         SwingUtilities.invokeLater(() -> {
-            new MapFrame(
-                graphManager.getNodes(),
-                graphManager.getEdges(),
-                graphManager.getMudangs()
-            ).setVisible(true);
+            new MapFrame(graphManager).setVisible(true);
         });
     }
+
+    // "--이름 값" 형식 옵션의 값 (없으면 null)
+    static String optionValue(String[] args, String name) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals(name)) return args[i + 1];
+        }
+        return null;
+    }
+
+    static boolean hasFlag(String[] args, String name) {
+        for (String arg : args) {
+            if (arg.equals(name)) return true;
+        }
+        return false;
+    }
 }
@@ -6,16 +6,25 @@ import java.awt.event.MouseMotionAdapter;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
 import java.awt.geom.AffineTransform;
-import java.awt.geom.CubicCurve2D;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
 class MapPanel extends JPanel {
-    private final List<Node> nodes;
-    private final List<Edge> edges;
-    private final List<Mudang> mudangs;
+    // 노드/엣지/무당은 그릴 때마다 GraphManager의 현재 사본을 받아 쓴다 (다른 스레드가 그래프를 바꿔도 안전)
+    private final GraphManager graphManager;
     private List<PathSegment> shortestPath;
+    // 최단 경로 밑에 함께 그릴 대안 경로들 (k번째 최단 경로 등)
+    private List<List<PathSegment>> alternativePaths = new ArrayList<>();
+    // 도달 범위 음영 (예산이 큰 것부터), 없으면 빈 목록
+    private List<Area> isochroneBands = new ArrayList<>();
+    // 디버그: 마지막 탐색이 확정한 노드들 (없으면 빈 목록)
+    private List<Node> settledNodes = new ArrayList<>();
     
     // 강조할 노드를 저장
     private List<Node> highlightedNodes;
@@ -25,6 +34,36 @@ class MapPanel extends JPanel {
     
     //지도 이미지
     private Image backgroundImage;
+
+    // 줌 단계별로 미리 축소/확대한 지도 타일 (지도 이미지를 읽지 못하면 null)
+    private MapTileCache tileCache;
+    private static final long TILE_MEMORY_BUDGET = 64L * 1024 * 1024;
+    private int lastZoomKey = -1;
+
+    // 타일에 함께 그리는 고정 그래프 스냅샷과 그 그래프 버전 (버전이 바뀌면 다시 만든다)
+    private GraphLayer graphLayer;
+    private long graphLayerVersion = -1;
+
+    // 경로/강조처럼 자주 바뀌는 위쪽 레이어
+    private static final Color MUDANG_COLOR = new Color(34, 139, 34); // 초록색
+    private static final BasicStroke MUDANG_PATH_STROKE = new BasicStroke(4);
+    private static final BasicStroke WALK_PATH_STROKE = new BasicStroke(3);
+    private static final BasicStroke NODE_STROKE = new BasicStroke(2);
+    // 대안 경로는 순서마다 다른 색과 점선으로 구분한다
+    private static final Color[] ALTERNATIVE_COLORS = {
+            new Color(255, 140, 0, 190), new Color(148, 0, 211, 170), new Color(0, 139, 139, 170), new Color(199, 21, 133, 150)
+    };
+    // 도달 범위: 가까운 예산일수록 진하게, 도달한 보도 주변 이 폭만큼을 칠한다
+    private static final Color[] ISOCHRONE_COLORS = {
+            new Color(30, 144, 255, 45), new Color(30, 144, 255, 70), new Color(30, 144, 255, 95), new Color(30, 144, 255, 120)
+    };
+    private static final float ISOCHRONE_WIDTH = 36;
+    // 탐색이 확정한 노드 점
+    private static final Color SETTLED_COLOR = new Color(220, 20, 60, 110);
+    private static final int SETTLED_RADIUS = 4;
+    private static final BasicStroke[] ALTERNATIVE_STROKES = {
+            dashed(8, 6), dashed(4, 4), dashed(12, 4, 2, 4), dashed(2, 5)
+    };
     
     //줌 드래그 
     private double zoomLevel = 1.0; // 줌 레벨
@@ -41,16 +80,17 @@ class MapPanel extends JPanel {
         offsetY = y;
     }
     
-    public MapPanel(List<Node> nodes, List<Edge> edges, List<Mudang> mudangs, List<Object> shortestPath) {
-        this.nodes = nodes;
-        this.edges = edges;
-        this.mudangs = mudangs;
+    public MapPanel(GraphManager graphManager, List<Object> shortestPath) {
+        this.graphManager = graphManager;
         this.shortestPath = new ArrayList<>();
         this.highlightedNodes = new ArrayList<>();
         
         // 지도 이미지 로드
         ImageIcon icon = new ImageIcon("map.png"); // 지도 이미지 경로
         backgroundImage = icon.getImage();
+        if (backgroundImage.getWidth(null) > 0) {
+            tileCache = new MapTileCache(backgroundImage, TILE_MEMORY_BUDGET, this::repaint);
+        }
         
         setInitialPosition(55, -1510); //창 실행시 뷰포트 위치 설정
         
@@ -63,27 +103,91 @@ class MapPanel extends JPanel {
     
     // 최단 경로 설정 메서드
     public void setShortestPath(List<PathSegment> path) {
+        Rectangle2D dirty = pathBounds(shortestPath);
         this.shortestPath = path;
-        repaint(); // 화면 갱신
+        repaintWorld(union(dirty, pathBounds(path))); // 이전/새 경로가 걸친 부분만 화면 갱신
+    }
+    
+    // 대안 경로 설정 (없애려면 빈 목록)
+    public void setAlternativePaths(List<List<PathSegment>> paths) {
+        Rectangle2D dirty = null;
+        for (List<PathSegment> path : alternativePaths) dirty = union(dirty, pathBounds(path));
+        this.alternativePaths = paths;
+        for (List<PathSegment> path : paths) dirty = union(dirty, pathBounds(path));
+        repaintWorld(dirty);
+    }
+    
+    // 도달 범위 음영 설정 (isochrone이 null이면 지운다), budgets는 모두 isochrone.maxBudget() 이하
+    public void setIsochrone(Isochrone isochrone, int[] budgets) {
+        Rectangle2D dirty = null;
+        for (Area band : isochroneBands) dirty = union(dirty, band.getBounds2D());
+        List<Area> bands = new ArrayList<>();
+        if (isochrone != null) {
+            int[] sorted = budgets.clone();
+            Arrays.sort(sorted);
+            for (int i = sorted.length - 1; i >= 0; i--) {
+                Area band = isochroneArea(isochrone, sorted[i]);
+                bands.add(band);
+                dirty = union(dirty, band.getBounds2D());
+            }
+        }
+        this.isochroneBands = bands;
+        repaintWorld(dirty);
+    }
+
+    // 예산 안에 도달한 노드 주변과, 도달한 노드에서 남은 예산만큼 보도를 따라간 부분을 덮는 영역
+    private static Area isochroneArea(Isochrone isochrone, int budget) {
+        CompactGraph graph = isochrone.graph();
+        Path2D.Float reached = new Path2D.Float();
+        Path2D.Float dots = new Path2D.Float();
+        for (int k = 0, count = isochrone.countWithin(budget); k < count; k++) {
+            int u = isochrone.node(k);
+            int left = budget - isochrone.distanceAt(k);
+            Node from = graph.node(u);
+            dots.append(new Ellipse2D.Float(from.x - ISOCHRONE_WIDTH / 2, from.y - ISOCHRONE_WIDTH / 2, ISOCHRONE_WIDTH, ISOCHRONE_WIDTH), false);
+            for (int i = graph.walkOffsets[u], end = graph.walkOffsets[u + 1]; i < end; i++) {
+                Node to = graph.node(graph.walkTargets[i]);
+                int weight = graph.walkWeights[i];
+                float fraction = weight <= left ? 1f : (float) left / weight;
+                if (fraction <= 0) continue;
+                reached.moveTo(from.x, from.y);
+                reached.lineTo(from.x + (to.x - from.x) * fraction, from.y + (to.y - from.y) * fraction);
+            }
+        }
+        BasicStroke stroke = new BasicStroke(ISOCHRONE_WIDTH, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+        Area area = new Area(stroke.createStrokedShape(reached));
+        area.add(new Area(dots));
+        return area;
     }
     
+    // 탐색이 확정한 노드를 작은 점으로 표시 (빈 목록이면 지운다)
+    public void setSettledNodes(List<Node> nodes) {
+        Rectangle2D dirty = dotBounds(settledNodes);
+        this.settledNodes = nodes;
+        repaintWorld(union(dirty, dotBounds(nodes)));
+    }
+
     // 강조할 노드를 설정
     public void setHighlightedNodes(List<Node> highlightedNodes) {
+        Rectangle2D dirty = nodeBounds(this.highlightedNodes);
         this.highlightedNodes = highlightedNodes;
-        repaint(); // 화면 갱신
+        repaintWorld(union(dirty, nodeBounds(highlightedNodes))); // 이전/새 강조 노드 부분만 화면 갱신
     }
     
     //토글 기능 설정
     public void setIncludeMudangPaths(boolean includeMudangPaths) {
+        if (this.includeMudangPaths == includeMudangPaths) {
+            return;
+        }
         this.includeMudangPaths = includeMudangPaths;
-        repaint(); // 화면 갱신
+        repaintWorld(mudangBounds()); // 무당 경로가 걸친 부분만 화면 갱신
     }
     
     public void findAndDisplayShortestPath(Node startNode, Node endNode) {
         // Edge와 Mudang 경로를 결합하여 사용할 엣지 리스트 결정
-        List<Edge> activeEdges = new ArrayList<>(edges);
+        List<Edge> activeEdges = new ArrayList<>(graphManager.getEdges());
         if (includeMudangPaths) {
-            for (Mudang mudang : mudangs) {
+            for (Mudang mudang : graphManager.getMudangs()) {
                 activeEdges.add(new Edge(mudang.from, mudang.to, mudang.cost));
             }
         }
@@ -157,6 +261,141 @@ class MapPanel extends JPanel {
 
     
 
+    // 다시 그릴 영역에 걸치는 타일만 그리고, 아직 없는 타일은 원본을 빠른 보간으로 대신 그린다
+    private void drawBackgroundTiles(Graphics2D g2) {
+        if (tileCache == null) {
+            return;
+        }
+        Rectangle clip = g2.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int zoomKey = MapTileCache.zoomKey(zoomLevel);
+        int size = MapTileCache.TILE_SIZE;
+        long originX = Math.round(offsetX);
+        long originY = Math.round(offsetY);
+        int firstColumn = (int) Math.max(0, Math.floorDiv(clip.x - originX, size));
+        int firstRow = (int) Math.max(0, Math.floorDiv(clip.y - originY, size));
+        int lastColumn = (int) Math.min(tileCache.columns(zoomKey) - 1, Math.floorDiv(clip.x + clip.width - 1 - originX, size));
+        int lastRow = (int) Math.min(tileCache.rows(zoomKey) - 1, Math.floorDiv(clip.y + clip.height - 1 - originY, size));
+
+        g2.setTransform(AffineTransform.getTranslateInstance(originX, originY));
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                Image tile = tileCache.tile(zoomKey, column, row);
+                if (tile != null) {
+                    g2.drawImage(tile, column * size, row * size, null);
+                } else {
+                    tileCache.drawFallback(g2, zoomKey, column, row, column * size, row * size);
+                }
+            }
+        }
+
+        // 드래그로 곧 보일 주변 타일, 줌이 바뀌었으면 바로 위/아래 줌 단계 타일도 미리 만든다
+        tileCache.prefetch(zoomKey, firstColumn - 1, firstRow - 1, lastColumn + 1, lastRow + 1);
+        if (zoomKey != lastZoomKey) {
+            lastZoomKey = zoomKey;
+            for (int next : new int[]{zoomKey - 10, zoomKey + 10}) {
+                if (next < MapTileCache.zoomKey(MIN_ZOOM) || next > MapTileCache.zoomKey(MAX_ZOOM)) continue;
+                double ratio = next / (double) zoomKey;
+                tileCache.prefetch(next, (int) (firstColumn * ratio), (int) (firstRow * ratio),
+                        (int) Math.ceil((lastColumn + 1) * ratio), (int) Math.ceil((lastRow + 1) * ratio));
+            }
+        }
+    }
+
+    // 그래프가 바뀌었으면(비용 변경 포함) 고정 그래프 스냅샷을 다시 만들고 타일도 버린다
+    // 버전을 먼저 읽으므로 사본을 받는 사이에 바뀌면 다음 그리기에서 다시 만든다
+    private void ensureGraphLayer() {
+        long version = graphManager.getVersion();
+        if (graphLayer != null && graphLayerVersion == version) {
+            return;
+        }
+        OffHeapGraph fileGraph = graphManager.getOffHeapGraph();
+        graphLayer = fileGraph != null
+                ? GraphLayer.of(fileGraph, getFont())
+                : GraphLayer.of(graphManager.getNodes(), graphManager.getEdges(), getFont());
+        graphLayerVersion = version;
+        if (tileCache != null) {
+            tileCache.setLayer(graphLayer);
+        }
+    }
+
+    // 지도 좌표 사각형이 차지하는 화면 영역만 다시 그린다 (null이면 그릴 것 없음)
+    private void repaintWorld(Rectangle2D bounds) {
+        if (bounds == null) {
+            return;
+        }
+        int x = (int) Math.floor(bounds.getMinX() * zoomLevel + offsetX) - 2;
+        int y = (int) Math.floor(bounds.getMinY() * zoomLevel + offsetY) - 2;
+        int right = (int) Math.ceil(bounds.getMaxX() * zoomLevel + offsetX) + 2;
+        int bottom = (int) Math.ceil(bounds.getMaxY() * zoomLevel + offsetY) + 2;
+        repaint(x, y, right - x, bottom - y);
+    }
+
+    private static Rectangle2D union(Rectangle2D a, Rectangle2D b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.createUnion(b);
+    }
+
+    // 경로 선분 전체를 덮는 사각형 (선 두께만큼 여유)
+    private static Rectangle2D pathBounds(List<PathSegment> path) {
+        Rectangle2D bounds = null;
+        if (path != null) {
+            for (PathSegment segment : path) {
+                Rectangle2D line = new Rectangle2D.Double(Math.min(segment.from.x, segment.to.x), Math.min(segment.from.y, segment.to.y),
+                        Math.abs(segment.from.x - segment.to.x), Math.abs(segment.from.y - segment.to.y));
+                bounds = union(bounds, line);
+            }
+        }
+        return grow(bounds, 4);
+    }
+
+    // 노드 원과 이름을 덮는 사각형
+    private Rectangle2D nodeBounds(List<Node> targets) {
+        Rectangle2D bounds = null;
+        if (targets != null) {
+            FontMetrics metrics = getFontMetrics(getFont());
+            for (Node node : targets) {
+                int labelWidth = metrics.stringWidth(node.name);
+                Rectangle2D box = new Rectangle2D.Double(node.x - 20, node.y - 20 - metrics.getAscent(),
+                        Math.max(36, labelWidth), metrics.getAscent() + 36);
+                bounds = union(bounds, box);
+            }
+        }
+        return grow(bounds, 2);
+    }
+
+    private static Rectangle2D dotBounds(List<Node> targets) {
+        Rectangle2D bounds = null;
+        for (Node node : targets) {
+            bounds = union(bounds, new Rectangle2D.Double(node.x - SETTLED_RADIUS, node.y - SETTLED_RADIUS,
+                    2 * SETTLED_RADIUS, 2 * SETTLED_RADIUS));
+        }
+        return grow(bounds, 1);
+    }
+
+    private Rectangle2D mudangBounds() {
+        Rectangle2D bounds = null;
+        for (Mudang mudang : graphManager.getMudangs()) {
+            Rectangle2D line = new Rectangle2D.Double(Math.min(mudang.from.x, mudang.to.x), Math.min(mudang.from.y, mudang.to.y),
+                    Math.abs(mudang.from.x - mudang.to.x), Math.abs(mudang.from.y - mudang.to.y));
+            bounds = union(bounds, line);
+        }
+        return grow(bounds, 2);
+    }
+
+    private static BasicStroke dashed(float... pattern) {
+        return new BasicStroke(3, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 10, pattern, 0);
+    }
+
+    private static Rectangle2D grow(Rectangle2D bounds, double margin) {
+        if (bounds == null) return null;
+        return new Rectangle2D.Double(bounds.getX() - margin, bounds.getY() - margin,
+                bounds.getWidth() + 2 * margin, bounds.getHeight() + 2 * margin);
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
@@ -178,11 +417,12 @@ class MapPanel extends JPanel {
 //        g2.setPaint(gradient);
 //        g2.fillRect(0, 0, getWidth(), getHeight());
 //        
-        // 변환 적용 후 이미지 그리기
+        // 배경 지도와 고정 그래프는 현재 줌 단계의 타일 중 화면(다시 그릴 영역)에 보이는 것만 그린다
+        ensureGraphLayer();
+        drawBackgroundTiles(g2);
+
+        // 변환 적용 후 그래프 그리기
         g2.setTransform(transform);
-        if (backgroundImage != null) {
-            g2.drawImage(backgroundImage, 0, 0, this);
-        }
         
 //        // 학교 영역을 파란색으로 칠하기
 //        g2.setColor(new Color(173, 216, 230, 150)); // 반투명한 파란색
@@ -193,14 +433,43 @@ class MapPanel extends JPanel {
         // 앤티앨리어싱 설정
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
+        // 지도 이미지가 없어 타일을 쓰지 못하면 그래프를 화면 범위만큼 직접 그린다
+        if (tileCache == null) {
+            g2.setStroke(NODE_STROKE);
+            graphLayer.draw(g2, -offsetX / zoomLevel, -offsetY / zoomLevel,
+                    (getWidth() - offsetX) / zoomLevel, (getHeight() - offsetY) / zoomLevel, zoomLevel);
+        }
+
+        // 여기부터는 경로/강조처럼 자주 바뀌는 레이어
+        // 도달 범위 음영 (큰 예산부터 칠해 가까운 범위가 더 진해진다)
+        for (int i = 0; i < isochroneBands.size(); i++) {
+            g2.setColor(ISOCHRONE_COLORS[Math.min(i, ISOCHRONE_COLORS.length - 1)]);
+            g2.fill(isochroneBands.get(i));
+        }
+
         // 무당이 경로 그리기 (초록색, 무당이 경로 토글 상태일때)
         if (includeMudangPaths) {
-            g2.setColor(new Color(34, 139, 34)); // 초록색
-            for (Mudang mudang : mudangs) {
+            g2.setColor(MUDANG_COLOR); // 초록색
+            for (Mudang mudang : graphManager.getMudangs()) {
                 g2.drawLine(mudang.from.x, mudang.from.y, mudang.to.x, mudang.to.y);
             }
         }
         
+        // 탐색이 확정한 노드 (디버그 표시)
+        g2.setColor(SETTLED_COLOR);
+        for (Node node : settledNodes) {
+            g2.fillOval(node.x - SETTLED_RADIUS, node.y - SETTLED_RADIUS, 2 * SETTLED_RADIUS, 2 * SETTLED_RADIUS);
+        }
+
+        // 대안 경로는 최단 경로 밑에 그린다
+        for (int i = alternativePaths.size() - 1; i >= 0; i--) {
+            g2.setColor(ALTERNATIVE_COLORS[i % ALTERNATIVE_COLORS.length]);
+            g2.setStroke(ALTERNATIVE_STROKES[i % ALTERNATIVE_STROKES.length]);
+            for (PathSegment segment : alternativePaths.get(i)) {
+                g2.drawLine(segment.from.x, segment.from.y, segment.to.x, segment.to.y);
+            }
+        }
+
         //최단경로 그리기 (무당이 보도 구분)
         if (shortestPath != null) {
             for (Object obj : shortestPath) {
@@ -208,63 +477,20 @@ class MapPanel extends JPanel {
                     PathSegment segment = (PathSegment) obj;
                     if (segment.isMudang) {
                         g2.setColor(Color.RED); // 무당 경로
-                        g2.setStroke(new BasicStroke(4));
+                        g2.setStroke(MUDANG_PATH_STROKE);
                     } else {
                         g2.setColor(Color.BLUE); // 보도 경로
-                        g2.setStroke(new BasicStroke(3));
+                        g2.setStroke(WALK_PATH_STROKE);
                     }
                     g2.drawLine(segment.from.x, segment.from.y, segment.to.x, segment.to.y);
                 }
             }
         }
-        // 엣지 그리기 (곡선)
-        g2.setColor(new Color(70, 130, 180)); // 파란색 계열
-        g2.setStroke(new BasicStroke(2)); // 선 두께
-        for (Edge edge : edges) {
-            double ctrlX1 = (edge.from.x + edge.to.x) / 2.0 + 30; // 첫 번째 제어점
-            double ctrlY1 = (edge.from.y + edge.to.y) / 2.0 - 30;
-            double ctrlX2 = (edge.from.x + edge.to.x) / 2.0 - 30; // 두 번째 제어점
-            double ctrlY2 = (edge.from.y + edge.to.y) / 2.0 + 30;
-
-            CubicCurve2D.Double curve = new CubicCurve2D.Double();
-            curve.setCurve(
-                    edge.from.x, edge.from.y, // 시작점
-                    ctrlX1, ctrlY1,           // 첫 번째 제어점
-                    ctrlX2, ctrlY2,           // 두 번째 제어점
-                    edge.to.x, edge.to.y      // 끝점
-            );
-            g2.draw(curve);
-
-//            // 가중치 표시 - 예찬
-//
-//            double costPointX = (edge.from.x + edge.to.x) / 2.0;
-//            double costPointY = (edge.from.x + edge.to.x) / 2.0;
-//
-//            g2.setColor(Color.BLACK);
-//            g2.drawString(edge.toString(), (int) costPointX, (int) costPointY);
-//            // 여기까지
-
-        }
-
-        // 노드 그리기
-        for (Node node : nodes) {
-            // 노드 원
-            g2.setColor(new Color(220, 20, 60)); // 붉은색 계열
-            
-            // 강조된 노드 색상 변경
-            if (highlightedNodes.contains(node)) {
-                g2.setColor(Color.YELLOW); // 강조 표시
-            }
-            g2.fillOval(node.x - 15, node.y - 15, 30, 30);
-
-            // 노드 테두리
-            g2.setColor(Color.BLACK);
-            g2.setStroke(new BasicStroke(2));
-            g2.drawOval(node.x - 15, node.y - 15, 30, 30);
 
-            // 노드 이름 표시
-            g2.setColor(Color.BLACK);
-            g2.drawString(node.name, node.x - 20, node.y - 20);
+        // 강조된 노드는 타일에 그려진 노드 위에 노란색으로 덧그린다
+        g2.setStroke(NODE_STROKE);
+        for (Node node : highlightedNodes) {
+            GraphLayer.drawNode(g2, node.x, node.y, node.name, Color.YELLOW);
         }
         
     }
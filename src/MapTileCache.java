@@ -0,0 +1,271 @@
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// 지도 이미지를 줌 단계별로 미리 축소/확대한 고정 크기 타일로 잘라 보관하는 캐시
+// 화면에 보이는 타일만 그리고, 없는 타일은 백그라운드에서 만들어 두었다가 다음 repaint에 쓴다
+// 그 사이에는 mip 이미지나 이미 만든 더 낮은 줌 단계의 타일을 확대해 보여 준다 (그래프는 타일이 오면 나타난다)
+// 축소 타일은 원본 대신 절반씩 줄인 mip 이미지에서 만들어 품질과 속도를 함께 챙긴다
+// 지도 위의 고정 그래프(GraphLayer)도 타일에 함께 그려 두므로 경로/강조만 바뀔 때는 다시 그리지 않는다
+class MapTileCache {
+    static final int TILE_SIZE = 256;
+    private static final long TILE_BYTES = (long) TILE_SIZE * TILE_SIZE * 4;
+
+    private final List<BufferedImage> mips = new ArrayList<>(); // [0] = 원본, [k] = 1/2^k 크기
+    private final int imageWidth;
+    private final int imageHeight;
+    private final int maxTiles;
+    private final Runnable onTileReady;
+
+    // (줌 단계, 타일 x, 타일 y) -> 타일, 접근 순서 LRU
+    private final LinkedHashMap<Long, BufferedImage> tiles = new LinkedHashMap<>(64, 0.75f, true);
+    private final Set<Long> pending = new HashSet<>();
+    // 줌 단계 -> 캐시에 있는 그 단계의 타일 수 (tiles로 잠근다), 대신 보여 줄 낮은 줌 단계를 찾는 용도
+    private final TreeMap<Integer, Integer> zoomCounts = new TreeMap<>();
+
+    // 타일에 함께 그리는 그래프, 바뀌면 generation을 올려 만들던 타일도 버린다
+    private volatile GraphLayer layer;
+    private volatile int generation;
+    private final ExecutorService renderer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "map-tile-renderer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    // memoryBudget: 타일이 차지할 수 있는 최대 바이트, onTileReady: 타일이 준비되면 호출 (repaint 요청용)
+    MapTileCache(Image image, long memoryBudget, Runnable onTileReady) {
+        BufferedImage source = toCompatibleImage(image, image.getWidth(null), image.getHeight(null));
+        this.imageWidth = source.getWidth();
+        this.imageHeight = source.getHeight();
+        this.maxTiles = (int) Math.max(16, memoryBudget / TILE_BYTES);
+        this.onTileReady = onTileReady;
+        mips.add(source);
+        while (source.getWidth() > TILE_SIZE && source.getHeight() > TILE_SIZE) {
+            source = scaled(source, source.getWidth() / 2, source.getHeight() / 2);
+            mips.add(source);
+        }
+    }
+
+    // 줌 배율을 캐시 키로 쓰는 단계로 변환 (0.01 단위)
+    static int zoomKey(double zoom) {
+        return (int) Math.round(zoom * 100);
+    }
+
+    int imageWidth() {
+        return imageWidth;
+    }
+
+    int imageHeight() {
+        return imageHeight;
+    }
+
+    // 그래프가 바뀌면 새 스냅샷으로 교체하고 모든 줌 단계의 타일을 버린다
+    void setLayer(GraphLayer layer) {
+        synchronized (tiles) {
+            this.layer = layer;
+            generation++;
+            tiles.clear();
+            zoomCounts.clear();
+        }
+    }
+
+    // 타일 범위: 지도 이미지와 그래프 중 큰 쪽
+    int columns(int zoomKey) {
+        return (int) Math.ceil(extentWidth() * zoomKey / 100.0 / TILE_SIZE);
+    }
+
+    int rows(int zoomKey) {
+        return (int) Math.ceil(extentHeight() * zoomKey / 100.0 / TILE_SIZE);
+    }
+
+    private int extentWidth() {
+        GraphLayer current = layer;
+        return current == null ? imageWidth : Math.max(imageWidth, current.width());
+    }
+
+    private int extentHeight() {
+        GraphLayer current = layer;
+        return current == null ? imageHeight : Math.max(imageHeight, current.height());
+    }
+
+    // 준비된 타일 (없으면 백그라운드 생성을 요청하고 null)
+    BufferedImage tile(int zoomKey, int column, int row) {
+        long key = key(zoomKey, column, row);
+        synchronized (tiles) {
+            BufferedImage tile = tiles.get(key);
+            if (tile != null) return tile;
+        }
+        request(zoomKey, column, row);
+        return null;
+    }
+
+    // 화면에 곧 보일 범위의 타일을 미리 만들어 둔다
+    void prefetch(int zoomKey, int firstColumn, int firstRow, int lastColumn, int lastRow) {
+        for (int row = Math.max(0, firstRow); row <= Math.min(rows(zoomKey) - 1, lastRow); row++) {
+            for (int column = Math.max(0, firstColumn); column <= Math.min(columns(zoomKey) - 1, lastColumn); column++) {
+                if (!contains(zoomKey, column, row)) request(zoomKey, column, row);
+            }
+        }
+    }
+
+    private boolean contains(int zoomKey, int column, int row) {
+        synchronized (tiles) {
+            return tiles.containsKey(key(zoomKey, column, row));
+        }
+    }
+
+    private void request(int zoomKey, int column, int row) {
+        long key = key(zoomKey, column, row);
+        synchronized (pending) {
+            if (!pending.add(key)) return;
+        }
+        renderer.execute(() -> {
+            int expected = generation;
+            BufferedImage tile = render(zoomKey, column, row, layer);
+            synchronized (tiles) {
+                // 그리는 사이 그래프가 바뀌었으면 버린다 (다음 repaint에서 다시 요청된다)
+                if (expected == generation && tiles.put(key, tile) == null) {
+                    zoomCounts.merge(zoomKey, 1, Integer::sum);
+                }
+                // 메모리 한도를 넘으면 가장 오래 쓰지 않은 타일부터 버린다
+                while (tiles.size() > maxTiles) {
+                    Long eldest = tiles.keySet().iterator().next();
+                    tiles.remove(eldest);
+                    zoomCounts.computeIfPresent((int) (eldest >>> 42), (zoom, count) -> count > 1 ? count - 1 : null);
+                }
+            }
+            synchronized (pending) {
+                pending.remove(key);
+            }
+            onTileReady.run();
+        });
+    }
+
+    // 타일이 아직 없을 때 mip 이미지에서 해당 영역을 빠른 보간으로 그리고, 낮은 줌 단계의 타일이 있으면 확대해 덮는다
+    // 그래프는 직접 그리지 않는다 (EDT가 타일을 만드는 스레드와 GraphLayer 잠금을 다투지 않도록)
+    void drawFallback(Graphics2D g2, int zoomKey, int column, int row, int x, int y) {
+        double scale = zoomKey / 100.0;
+        BufferedImage mip = mipFor(scale);
+        double mipScale = scale * mips.get(0).getWidth() / mip.getWidth();
+        int sx = (int) (column * TILE_SIZE / mipScale);
+        int sy = (int) (row * TILE_SIZE / mipScale);
+        int sw = (int) Math.ceil(TILE_SIZE / mipScale);
+        int sh = (int) Math.ceil(TILE_SIZE / mipScale);
+        Object hint = g2.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g2.drawImage(mip, x, y, x + TILE_SIZE, y + TILE_SIZE, sx, sy, sx + sw, sy + sh, null);
+
+        Graphics2D g = (Graphics2D) g2.create(x, y, TILE_SIZE, TILE_SIZE);
+        drawCoarser(g, zoomKey, column, row);
+        g.dispose();
+        if (hint != null) g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, hint);
+    }
+
+    // 캐시에 있는 바로 아래 줌 단계에서 이 타일 자리를 덮는 타일(많아야 2 x 2개)을 확대해 그린다, 없는 칸은 mip 그대로 둔다
+    // g는 타일 왼쪽 위가 원점이고 타일 크기로 잘린 상태
+    private void drawCoarser(Graphics2D g, int zoomKey, int column, int row) {
+        Integer coarseKey;
+        synchronized (tiles) {
+            coarseKey = zoomCounts.lowerKey(zoomKey);
+        }
+        if (coarseKey == null) return;
+        double ratio = zoomKey / (double) coarseKey;
+        // 이 타일의 범위를 낮은 줌 단계의 타일 번호로
+        int firstColumn = (int) (column / ratio);
+        int lastColumn = (int) Math.ceil((column + 1) / ratio) - 1;
+        int firstRow = (int) (row / ratio);
+        int lastRow = (int) Math.ceil((row + 1) / ratio) - 1;
+        g.scale(ratio, ratio);
+        g.translate(-column * TILE_SIZE / ratio, -row * TILE_SIZE / ratio);
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                BufferedImage tile;
+                synchronized (tiles) {
+                    tile = tiles.get(key(coarseKey, c, r));
+                }
+                if (tile != null) g.drawImage(tile, c * TILE_SIZE, r * TILE_SIZE, null);
+            }
+        }
+    }
+
+    private BufferedImage render(int zoomKey, int column, int row, GraphLayer current) {
+        double scale = zoomKey / 100.0;
+        BufferedImage mip = mipFor(scale);
+        BufferedImage tile = createImage(TILE_SIZE, TILE_SIZE, Transparency.TRANSLUCENT);
+        Graphics2D g = tile.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.translate(-column * TILE_SIZE, -row * TILE_SIZE);
+        g.scale(scale, scale);
+        g.drawImage(mip, 0, 0, imageWidth, imageHeight, null);
+        if (current != null) {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setTransform(new AffineTransform());
+            drawLayer(g, current, scale, column, row);
+        }
+        g.dispose();
+        return tile;
+    }
+
+    // g는 타일 왼쪽 위가 원점인 상태, 타일이 덮는 지도 좌표 범위의 그래프만 그린다
+    private static void drawLayer(Graphics2D g, GraphLayer current, double scale, int column, int row) {
+        g.scale(scale, scale);
+        g.translate(-column * TILE_SIZE / scale, -row * TILE_SIZE / scale);
+        current.draw(g, column * TILE_SIZE / scale, row * TILE_SIZE / scale,
+                (column + 1) * TILE_SIZE / scale, (row + 1) * TILE_SIZE / scale, scale);
+    }
+
+    // 배율 이상의 해상도를 가진 가장 작은 mip
+    private BufferedImage mipFor(double scale) {
+        int level = 0;
+        while (level + 1 < mips.size() && scale <= 1.0 / (1 << (level + 1))) {
+            level++;
+        }
+        return mips.get(level);
+    }
+
+    private static long key(int zoomKey, int column, int row) {
+        return ((long) zoomKey << 42) | ((long) column << 21) | row;
+    }
+
+    private static BufferedImage scaled(BufferedImage source, int width, int height) {
+        BufferedImage result = createImage(width, height, source.getTransparency());
+        Graphics2D g = result.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+        return result;
+    }
+
+    private static BufferedImage toCompatibleImage(Image image, int width, int height) {
+        BufferedImage result = createImage(Math.max(1, width), Math.max(1, height), Transparency.TRANSLUCENT);
+        Graphics2D g = result.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return result;
+    }
+
+    // 화면과 같은 픽셀 형식의 이미지 (가능하면 가속되는 managed image가 된다)
+    private static BufferedImage createImage(int width, int height, int transparency) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return config.createCompatibleImage(width, height, transparency);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    }
+}
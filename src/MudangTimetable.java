@@ -0,0 +1,79 @@
+import java.util.Arrays;
+
+// 무당 구간 하나(출발 정류장 -> 도착 정류장)의 운행 시간표
+// 시간 단위는 분, 하루는 0 ~ 1439 (엣지 비용과 같은 단위로 본다)
+public final class MudangTimetable {
+    private final int[] departures;  // 출발 시각 (오름차순)
+    private final int[] arrivals;    // 그 편의 도착 시각
+
+    // 그 시각 이후에 탈 수 있는 편 중 가장 이른 도착 시각 (뒤 편이 앞 편을 앞질러도 FIFO가 되도록 뒤에서부터 누적한 최솟값)
+    private final int[] earliestArrivalFrom;
+
+    // departures[i]에 출발해 arrivals[i]에 도착하는 편들 (순서는 상관없다)
+    public MudangTimetable(int[] departures, int[] arrivals) {
+        if (departures.length != arrivals.length) {
+            throw new IllegalArgumentException("출발/도착 시각 수가 다릅니다.");
+        }
+        Integer[] order = new Integer[departures.length];
+        for (int i = 0; i < order.length; i++) {
+            if (arrivals[i] < departures[i]) {
+                throw new IllegalArgumentException("도착 시각이 출발 시각보다 빠릅니다: " + departures[i] + " -> " + arrivals[i]);
+            }
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(departures[a], departures[b]));
+        this.departures = new int[order.length];
+        this.arrivals = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            this.departures[i] = departures[order[i]];
+            this.arrivals[i] = arrivals[order[i]];
+        }
+        earliestArrivalFrom = new int[order.length];
+        int best = Integer.MAX_VALUE;
+        for (int i = order.length - 1; i >= 0; i--) {
+            best = Math.min(best, this.arrivals[i]);
+            earliestArrivalFrom[i] = best;
+        }
+    }
+
+    // first부터 last까지 headway 간격으로 출발하고 travelTime만큼 걸리는 시간표
+    public static MudangTimetable periodic(int first, int last, int headway, int travelTime) {
+        int count = first > last ? 0 : (last - first) / headway + 1;
+        int[] departures = new int[count];
+        int[] arrivals = new int[count];
+        for (int i = 0; i < count; i++) {
+            departures[i] = first + i * headway;
+            arrivals[i] = departures[i] + travelTime;
+        }
+        return new MudangTimetable(departures, arrivals);
+    }
+
+    // time에 정류장에 있을 때 가장 빨리 도착하는 시각 (더 탈 편이 없으면 Integer.MAX_VALUE)
+    public int arrivalAt(int time) {
+        int i = firstDepartureAtOrAfter(time);
+        return i < departures.length ? earliestArrivalFrom[i] : Integer.MAX_VALUE;
+    }
+
+    public int size() {
+        return departures.length;
+    }
+
+    public int departure(int i) {
+        return departures[i];
+    }
+
+    public int arrival(int i) {
+        return arrivals[i];
+    }
+
+    private int firstDepartureAtOrAfter(int time) {
+        int low = 0;
+        int high = departures.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departures[mid] < time) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
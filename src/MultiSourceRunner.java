@@ -0,0 +1,115 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// 같은 그래프에서 출발지 수천 개의 단일 출발 최단 거리 트리를 병렬로 구하는 실행기 (대피/행사 계획용)
+// 모든 작업 스레드가 불변 CompactGraph 하나를 읽기만 하고, 탐색 상태는 스레드마다 따로 둔 SearchWorkspace에 있다
+// 그래서 탐색 도중에는 공유하는 가변 상태도 잠금도 없다 (결과는 출발지마다 다른 칸에 쓴다)
+// 출발지 구간을 반씩 나눈 fork-join 작업으로 돌리므로, 탐색 크기가 제각각이어도 한가한 스레드가 남은 구간을 훔쳐 간다
+// 작업 공간은 각 작업 스레드가 처음 쓸 때 스스로 할당하므로 -XX:+UseNUMA에서는 그 스레드의 로컬 메모리에 잡힌다
+public final class MultiSourceRunner implements AutoCloseable {
+    // 스레드당 이 정도 개수로 구간을 잘게 나눠 두어야 훔쳐 갈 작업이 남는다
+    private static final int CHUNKS_PER_THREAD = 16;
+
+    private final ForkJoinPool pool;
+
+    public MultiSourceRunner(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    // 출발지 하나의 탐색 트리를 읽는 콜백 (작업 스레드에서 호출된다)
+    // tree는 그 스레드의 작업 공간이라 콜백이 끝나면 다음 출발지에 재사용되고, 콜백 안에서 다른 탐색을 돌리면 덮어써진다
+    public interface Visitor {
+        void visit(int index, int source, Tree tree);
+    }
+
+    // 한 출발지의 최단 거리 트리 (읽기 전용)
+    public static final class Tree {
+        private final SearchWorkspace workspace;
+
+        private Tree(SearchWorkspace workspace) {
+            this.workspace = workspace;
+        }
+
+        // 출발지에서 node까지의 거리 (도달 불가면 Integer.MAX_VALUE)
+        public int distanceOf(int node) {
+            return workspace.distanceOf(node);
+        }
+
+        // 최단 경로에서 node 바로 앞 노드 (출발지나 도달 불가면 -1)
+        public int parentOf(int node) {
+            return workspace.isReached(node) ? workspace.parent[node] : -1;
+        }
+
+        public int settledCount() {
+            return workspace.settledCount;
+        }
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    // sources[i]마다 전체 최단 거리 트리를 구해 visitor.visit(i, sources[i], tree)를 부른다 (모두 끝나면 돌아온다)
+    // graph는 GraphManager.getCompactGraph()로 한 번 얻은 스냅샷을 넘긴다 (도중에 그래프가 바뀌어도 이 스냅샷으로 끝까지 간다)
+    public void forEach(CompactGraph graph, int[] sources, boolean useMudang, Visitor visitor) {
+        int grain = Math.max(1, sources.length / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        pool.invoke(new Range(graph, sources, useMudang, visitor, 0, sources.length, grain));
+    }
+
+    // 출발지마다 도달 가능한 모든 노드까지의 거리 합 (평균 이동 비용, closeness 계산용)
+    public long[] distanceSums(CompactGraph graph, int[] sources, boolean useMudang) {
+        long[] sums = new long[sources.length];
+        int n = graph.nodeCount();
+        forEach(graph, sources, useMudang, (index, source, tree) -> {
+            long sum = 0;
+            for (int v = 0; v < n; v++) {
+                int distance = tree.distanceOf(v);
+                if (distance != Integer.MAX_VALUE) sum += distance;
+            }
+            sums[index] = sum;
+        });
+        return sums;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    // 출발지 구간 [from, to), grain개 이하가 될 때까지 반으로 나눈다
+    private static final class Range extends RecursiveAction {
+        private final CompactGraph graph;
+        private final int[] sources;
+        private final boolean useMudang;
+        private final Visitor visitor;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        Range(CompactGraph graph, int[] sources, boolean useMudang, Visitor visitor, int from, int to, int grain) {
+            this.graph = graph;
+            this.sources = sources;
+            this.useMudang = useMudang;
+            this.visitor = visitor;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > grain) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Range(graph, sources, useMudang, visitor, from, mid, grain),
+                        new Range(graph, sources, useMudang, visitor, mid, to, grain));
+                return;
+            }
+            int n = graph.nodeCount();
+            for (int i = from; i < to; i++) {
+                SearchWorkspace workspace = SearchWorkspace.current(n);
+                DijkstraEngine.search(graph, sources[i], -1, useMudang, workspace);
+                visitor.visit(i, sources[i], new Tree(workspace));
+            }
+        }
+    }
+}
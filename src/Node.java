@@ -1,12 +1,31 @@
 import java.util.Objects;
 
 class Node {
+    // 그래프 안에서의 고유 번호 (GraphManager가 0부터 빈틈없이 붙인다, 등록되지 않은 노드는 -1)
+    final int id;
     String name;
     int x, y;
 
     Node(String name, int x, int y) {
-        this.name = name;
+        this(-1, name, x, y);
+    }
+
+    Node(int id, String name, int x, int y) {
+        this.id = id;
+        this.name = Objects.requireNonNull(name);
         this.x = x;
         this.y = y;
     }
+
+    // id가 있는 노드는 id로 비교하고, 없는 노드는 객체 자체로 비교한다
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return id >= 0 && o instanceof Node && ((Node) o).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+        return id >= 0 ? id : System.identityHashCode(this);
+    }
 }
@@ -0,0 +1,182 @@
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+// 노드 이름 -> id 조회와 입력 중 자동 완성을 위한 불변 색인
+// 이름마다 글자를 초성으로 바꾼 키("학생회관" -> "ㅎㅅㅎㄱ")를 정렬해 두고,
+// 질의도 같은 키로 바꿔 이분 탐색으로 앞부분이 같은 구간을 찾은 뒤 글자 단위로 다시 확인한다
+// 그래서 "학생", "ㅎㅅ", "학ㅅ", 아직 받침을 치기 전인 "학새" 모두 "학생회관"을 찾는다
+// 파일에서 연 그래프(of)는 이름/키/해시 맵을 힙에 두지 않고 키 순서의 노드 번호만 힙 밖에 두며,
+// 이분 탐색 중에 보는 몇 개의 이름만 그때그때 디코딩한다
+public final class NodeNameIndex {
+    private static final char HANGUL_BASE = '가';
+    private static final char HANGUL_LAST = '힣';
+    private static final int JUNGSEONG_COUNT = 21;
+    private static final int JONGSEONG_COUNT = 28;
+    // 초성 순서대로의 호환 자모 (ㄱ ㄲ ㄴ ...)
+    private static final char[] CHOSEONG = {
+            'ㄱ', 'ㄲ', 'ㄴ', 'ㄷ', 'ㄸ', 'ㄹ', 'ㅁ', 'ㅂ', 'ㅃ', 'ㅅ', 'ㅆ', 'ㅇ', 'ㅈ', 'ㅉ', 'ㅊ', 'ㅋ', 'ㅌ', 'ㅍ', 'ㅎ'
+    };
+
+    private final IntFunction<Node> nodes;   // id -> 노드
+    private final IntFunction<String> names; // id -> 이름
+    private final Map<String, Integer> ids;  // 이름 -> id (같은 이름이면 먼저 나온 노드), 힙 밖 색인은 null
+    private final String[] keys;             // 초성 키 (정렬됨), 힙 밖 색인은 null (이름에서 그때그때 만든다)
+    private final IntBuffer keyIds;          // i번째 키의 노드 id
+
+    // 목록 위치를 id로 쓴다 (GraphManager의 노드 목록이면 Node.id, CompactGraph의 노드면 그래프 인덱스와 같다)
+    // 목록은 바뀌지 않아야 한다 (GraphManager.getNodes, CompactGraph.nodeList), 목록이 뷰여도 노드를 복사해 두지 않고 이름만 보관한다
+    public NodeNameIndex(List<Node> nodes) {
+        int n = nodes.size();
+        String[] nameArray = new String[n];
+        Map<String, Integer> ids = new HashMap<>(n * 2);
+        String[] rawKeys = new String[n];
+        for (int i = 0; i < n; i++) {
+            nameArray[i] = nodes.get(i).name;
+            ids.putIfAbsent(nameArray[i], i);
+            rawKeys[i] = key(nameArray[i]);
+        }
+        int[] order = keyOrder(rawKeys);
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = rawKeys[order[i]];
+        }
+        this.nodes = nodes::get;
+        this.names = id -> nameArray[id];
+        this.ids = ids;
+        this.keys = keys;
+        this.keyIds = IntBuffer.wrap(order);
+    }
+
+    private NodeNameIndex(IntFunction<Node> nodes, IntFunction<String> names, IntBuffer keyIds) {
+        this.nodes = nodes;
+        this.names = names;
+        this.ids = null;
+        this.keys = null;
+        this.keyIds = keyIds;
+    }
+
+    // 힙 밖 그래프의 노드 번호를 id로 쓰는 색인 (키 순서는 그래프가 처음 한 번 정렬해 힙 밖에 둔다)
+    public static NodeNameIndex of(OffHeapGraph graph, IntFunction<Node> nodes) {
+        return new NodeNameIndex(nodes, graph::name, graph.nameOrder());
+    }
+
+    // 키 순서의 id (키가 같으면 id 순서 = 먼저 추가한 노드가 앞)
+    static int[] keyOrder(String[] rawKeys) {
+        Integer[] order = new Integer[rawKeys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int c = rawKeys[a].compareTo(rawKeys[b]);
+            return c != 0 ? c : Integer.compare(a, b);
+        });
+        int[] ids = new int[order.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = order[i];
+        }
+        return ids;
+    }
+
+    public int size() {
+        return keyIds.limit();
+    }
+
+    // 이름이 정확히 같은 노드의 id (없으면 -1)
+    public int idOf(String name) {
+        if (ids != null) {
+            Integer id = ids.get(name);
+            return id == null ? -1 : id;
+        }
+        // 키가 같은 구간은 id 순서이므로 처음 맞는 노드가 먼저 나온 노드다
+        String queryKey = key(name);
+        for (int i = lowerBound(queryKey); i < size() && keyAt(i).equals(queryKey); i++) {
+            int id = keyIds.get(i);
+            if (names.apply(id).equals(name)) return id;
+        }
+        return -1;
+    }
+
+    // prefix로 시작하는(초성/덜 친 글자 포함) 노드 id를 초성 키 순서로 최대 limit개
+    public int[] search(String prefix, int limit) {
+        String query = prefix.trim();
+        if (query.isEmpty() || limit <= 0) return new int[0];
+        String queryKey = key(query);
+        int[] found = new int[Math.min(limit, 16)];
+        int count = 0;
+        for (int i = lowerBound(queryKey); i < size() && keyAt(i).startsWith(queryKey) && count < limit; i++) {
+            int id = keyIds.get(i);
+            if (!matches(names.apply(id), query)) continue;
+            if (count == found.length) found = Arrays.copyOf(found, Math.min(limit, count * 2));
+            found[count++] = id;
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    public List<Node> searchNodes(String prefix, int limit) {
+        int[] found = search(prefix, limit);
+        List<Node> result = new ArrayList<>(found.length);
+        for (int id : found) {
+            result.add(nodes.apply(id));
+        }
+        return result;
+    }
+
+    private int lowerBound(String queryKey) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keyAt(mid).compareTo(queryKey) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private String keyAt(int i) {
+        return keys != null ? keys[i] : key(names.apply(keyIds.get(i)));
+    }
+
+    // 초성 키가 같은 후보 중 질의 글자가 실제로 맞는지 확인
+    // 완성된 음절은 그대로 같아야 하고, 마지막 글자가 받침 없는 음절이면 받침만 다른 음절도 허용한다
+    private static boolean matches(String name, String query) {
+        for (int i = 0; i < query.length(); i++) {
+            char q = fold(query.charAt(i));
+            char c = fold(name.charAt(i));
+            if (q == c || isChoseong(q)) continue;
+            boolean last = i == query.length() - 1;
+            if (!(last && isSyllable(q) && isSyllable(c) && jongseong(q) == 0 && q == c - jongseong(c))) return false;
+        }
+        return true;
+    }
+
+    // 이름 -> 초성 키 (한글 음절은 초성 자모로, 영문은 소문자로, 나머지는 그대로)
+    static String key(String name) {
+        char[] chars = new char[name.length()];
+        for (int i = 0; i < chars.length; i++) {
+            char c = fold(name.charAt(i));
+            chars[i] = isSyllable(c) ? CHOSEONG[(c - HANGUL_BASE) / (JUNGSEONG_COUNT * JONGSEONG_COUNT)] : c;
+        }
+        return new String(chars);
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(c);
+    }
+
+    private static boolean isSyllable(char c) {
+        return c >= HANGUL_BASE && c <= HANGUL_LAST;
+    }
+
+    private static boolean isChoseong(char c) {
+        return Arrays.binarySearch(CHOSEONG, c) >= 0;
+    }
+
+    private static int jongseong(char syllable) {
+        return (syllable - HANGUL_BASE) % JONGSEONG_COUNT;
+    }
+}
@@ -0,0 +1,326 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+// CompactGraph와 같은 CSR 그래프를 힙 밖(direct ByteBuffer)에 둔 불변 그래프 (노드 수백만 개 지도용)
+// 노드 좌표, 이름(UTF-8), 엣지 목록, 보도/무당 인접 배열이 모두 힙 밖에 있어서
+// 그래프가 커져도 힙에는 이 객체와 버퍼 헤더 몇 개만 남고 GC가 훑을 객체도 늘지 않는다
+// Node 객체는 경로 결과처럼 꼭 필요할 때만 만들고, 어느 GraphManager에도 등록되지 않은 노드(id -1)로 둔다
+// (노드 번호를 id로 주면 번호가 같은 다른 그래프의 노드와 equals가 되어 캐시 키나 강조 목록이 섞인다)
+// 구역마다 버퍼를 따로 잡으므로 한 구역이 2GB(int 5억 개)를 넘지 않는 한 크기 제한은 없다
+public final class OffHeapGraph {
+    private final int nodeCount;
+    private final int edgeCount;
+    private final int mudangCount;
+
+    // 노드: 좌표와 이름 (nameOffsets[v] ~ nameOffsets[v + 1] 구간이 v의 이름 바이트)
+    private final IntBuffer x;
+    private final IntBuffer y;
+    private final IntBuffer nameOffsets;
+    private final ByteBuffer names;
+
+    // 엣지 목록 (양방향 보도, 그리기와 목록 조회용)
+    private final IntBuffer edgeFrom;
+    private final IntBuffer edgeTo;
+    private final IntBuffer edgeCosts;
+
+    // 보도: walkOffsets[v] ~ walkOffsets[v + 1] 구간이 v의 이웃
+    private final IntBuffer walkOffsets;
+    private final IntBuffer walkTargets;
+    private final IntBuffer walkWeights;
+
+    // 무당: mudangOffsets[v] ~ mudangOffsets[v + 1] 구간이 v에서 출발하는 무당 경로
+    private final IntBuffer mudangOffsets;
+    private final IntBuffer mudangTargets;
+    private final IntBuffer mudangWeights;
+
+    // 초성 키 순서의 노드 번호 (NodeNameIndex용, 처음 이름으로 찾을 때 만든다)
+    private volatile IntBuffer nameOrder;
+
+    // 노드/엣지 정보를 채운 뒤 finish()로 인접 배열을 만든다
+    private OffHeapGraph(int nodeCount, int edgeCount, int mudangCount, int nameBytes) {
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.mudangCount = mudangCount;
+        x = ints(nodeCount);
+        y = ints(nodeCount);
+        nameOffsets = ints(nodeCount + 1);
+        names = ByteBuffer.allocateDirect(nameBytes);
+        edgeFrom = ints(edgeCount);
+        edgeTo = ints(edgeCount);
+        edgeCosts = ints(edgeCount);
+        walkOffsets = ints(nodeCount + 1);
+        walkTargets = ints(2 * edgeCount);
+        walkWeights = ints(2 * edgeCount);
+        mudangOffsets = ints(nodeCount + 1);
+        mudangTargets = ints(mudangCount);
+        mudangWeights = ints(mudangCount);
+    }
+
+    private static IntBuffer ints(int count) {
+        return ByteBuffer.allocateDirect(count * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    // 그래프 파일에서 Node/Edge 객체를 만들지 않고 바로 읽는다 (이름도 디코딩하지 않고 바이트째 복사)
+    public static OffHeapGraph open(Path file) throws IOException {
+        GraphFile graphFile = GraphFile.open(file);
+        graphFile.validate();
+        return from(graphFile);
+    }
+
+    public static OffHeapGraph from(GraphFile file) {
+        int n = file.nodeCount();
+        int nameBytes = 0;
+        for (int v = 0; v < n; v++) {
+            nameBytes += file.nameLength(v);
+        }
+        OffHeapGraph graph = new OffHeapGraph(n, file.edgeCount(), file.mudangCount(), nameBytes);
+        for (int v = 0; v < n; v++) {
+            graph.x.put(v, file.nodeX(v));
+            graph.y.put(v, file.nodeY(v));
+            graph.nameOffsets.put(v, graph.names.position());
+            file.copyName(v, graph.names);
+        }
+        graph.nameOffsets.put(n, graph.names.position());
+        for (int e = 0; e < graph.edgeCount; e++) {
+            graph.edgeFrom.put(e, file.edgeFrom(e));
+            graph.edgeTo.put(e, file.edgeTo(e));
+            graph.edgeCosts.put(e, file.edgeCost(e));
+        }
+        graph.finish(file::mudangFrom, file::mudangTo, file::mudangCost);
+        return graph;
+    }
+
+    // 노드/엣지/무당 리스트에서 만든다 (노드 번호는 리스트 위치, 리스트에 없는 엣지 끝점은 뒤에 이어 붙인다)
+    public static OffHeapGraph build(List<Node> nodeList, List<Edge> edges, List<Mudang> mudangs) {
+        Map<Node, Integer> index = new IdentityHashMap<>();
+        List<Node> ordered = new ArrayList<>(nodeList);
+        for (int i = 0; i < ordered.size(); i++) {
+            index.putIfAbsent(ordered.get(i), i);
+        }
+        for (Edge edge : edges) {
+            append(edge.getStart(), index, ordered);
+            append(edge.getEnd(), index, ordered);
+        }
+        for (Mudang mudang : mudangs) {
+            append(mudang.getStart(), index, ordered);
+            append(mudang.getEnd(), index, ordered);
+        }
+
+        int n = ordered.size();
+        byte[][] nameBytes = new byte[n][];
+        int totalNameBytes = 0;
+        for (int v = 0; v < n; v++) {
+            nameBytes[v] = ordered.get(v).name.getBytes(StandardCharsets.UTF_8);
+            totalNameBytes += nameBytes[v].length;
+        }
+        OffHeapGraph graph = new OffHeapGraph(n, edges.size(), mudangs.size(), totalNameBytes);
+        for (int v = 0; v < n; v++) {
+            Node node = ordered.get(v);
+            graph.x.put(v, node.x);
+            graph.y.put(v, node.y);
+            graph.nameOffsets.put(v, graph.names.position());
+            graph.names.put(nameBytes[v]);
+        }
+        graph.nameOffsets.put(n, graph.names.position());
+        for (int e = 0; e < edges.size(); e++) {
+            graph.edgeFrom.put(e, index.get(edges.get(e).getStart()));
+            graph.edgeTo.put(e, index.get(edges.get(e).getEnd()));
+            graph.edgeCosts.put(e, edges.get(e).getWeight());
+        }
+        graph.finish(k -> index.get(mudangs.get(k).getStart()), k -> index.get(mudangs.get(k).getEnd()), k -> mudangs.get(k).getWeight());
+        return graph;
+    }
+
+    private static void append(Node node, Map<Node, Integer> index, List<Node> ordered) {
+        if (!index.containsKey(node)) {
+            index.put(node, ordered.size());
+            ordered.add(node);
+        }
+    }
+
+    // 엣지 목록과 무당 정보로 인접 배열을 채운다
+    // 오프셋 배열을 채우기 커서로 같이 쓰고 마지막에 한 칸 밀어서, 노드 수만큼의 임시 배열을 힙에 만들지 않는다
+    private void finish(IntUnaryOperator mudangSource, IntUnaryOperator mudangTarget, IntUnaryOperator mudangCost) {
+        for (int e = 0; e < edgeCount; e++) {
+            increment(walkOffsets, edgeFrom.get(e));
+            increment(walkOffsets, edgeTo.get(e));
+        }
+        prefixStarts(walkOffsets);
+        for (int e = 0; e < edgeCount; e++) {
+            int u = edgeFrom.get(e);
+            int v = edgeTo.get(e);
+            int cost = edgeCosts.get(e);
+            int slot = next(walkOffsets, u);
+            walkTargets.put(slot, v);
+            walkWeights.put(slot, cost);
+            slot = next(walkOffsets, v);
+            walkTargets.put(slot, u);
+            walkWeights.put(slot, cost);
+        }
+        shiftEnds(walkOffsets);
+
+        for (int k = 0; k < mudangCount; k++) {
+            increment(mudangOffsets, mudangSource.applyAsInt(k));
+        }
+        prefixStarts(mudangOffsets);
+        for (int k = 0; k < mudangCount; k++) {
+            int slot = next(mudangOffsets, mudangSource.applyAsInt(k));
+            mudangTargets.put(slot, mudangTarget.applyAsInt(k));
+            mudangWeights.put(slot, mudangCost.applyAsInt(k));
+        }
+        shiftEnds(mudangOffsets);
+    }
+
+    // offsets[v + 1]에 v의 차수를 센다
+    private static void increment(IntBuffer offsets, int v) {
+        offsets.put(v + 1, offsets.get(v + 1) + 1);
+    }
+
+    // 차수 -> 시작 위치 (offsets[v] = v의 시작)
+    private static void prefixStarts(IntBuffer offsets) {
+        for (int v = 1; v < offsets.limit(); v++) {
+            offsets.put(v, offsets.get(v) + offsets.get(v - 1));
+        }
+    }
+
+    // v의 다음 빈 칸을 돌려주고 커서(offsets[v])를 한 칸 민다
+    private static int next(IntBuffer offsets, int v) {
+        int slot = offsets.get(v);
+        offsets.put(v, slot + 1);
+        return slot;
+    }
+
+    // 채우고 나면 offsets[v]는 v의 끝(= v + 1의 시작)이므로 한 칸씩 뒤로 밀고 0번을 0으로 둔다
+    private static void shiftEnds(IntBuffer offsets) {
+        for (int v = offsets.limit() - 1; v > 0; v--) {
+            offsets.put(v, offsets.get(v - 1));
+        }
+        offsets.put(0, 0);
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    public int mudangCount() {
+        return mudangCount;
+    }
+
+    public int x(int node) {
+        return x.get(node);
+    }
+
+    public int y(int node) {
+        return y.get(node);
+    }
+
+    // 이름은 요청할 때만 디코딩한다
+    public String name(int node) {
+        int start = nameOffsets.get(node);
+        byte[] bytes = new byte[nameOffsets.get(node + 1) - start];
+        names.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // 등록되지 않은 Node (부를 때마다 새로 만든다, 노드 번호를 id로 쓰는 쪽은 GraphManager.openGraphFile)
+    public Node node(int node) {
+        return new Node(name(node), x(node), y(node));
+    }
+
+    // 정렬할 때만 키를 힙에 만들고, 남겨 두는 것은 노드 수만큼의 int 버퍼뿐이다
+    IntBuffer nameOrder() {
+        IntBuffer order = nameOrder;
+        if (order != null) return order;
+        synchronized (this) {
+            if (nameOrder == null) {
+                String[] keys = new String[nodeCount];
+                for (int v = 0; v < nodeCount; v++) {
+                    keys[v] = NodeNameIndex.key(name(v));
+                }
+                int[] sorted = NodeNameIndex.keyOrder(keys);
+                IntBuffer buffer = ints(nodeCount);
+                for (int i = 0; i < nodeCount; i++) {
+                    buffer.put(i, sorted[i]);
+                }
+                nameOrder = buffer;
+            }
+            return nameOrder;
+        }
+    }
+
+    public int edgeFrom(int edge) {
+        return edgeFrom.get(edge);
+    }
+
+    public int edgeTo(int edge) {
+        return edgeTo.get(edge);
+    }
+
+    public int edgeCost(int edge) {
+        return edgeCosts.get(edge);
+    }
+
+    int walkStart(int node) {
+        return walkOffsets.get(node);
+    }
+
+    int walkEnd(int node) {
+        return walkOffsets.get(node + 1);
+    }
+
+    int walkTarget(int arc) {
+        return walkTargets.get(arc);
+    }
+
+    int walkWeight(int arc) {
+        return walkWeights.get(arc);
+    }
+
+    // 무당 arc(출발 노드 순서)의 출발 노드 (오프셋 배열을 이분 탐색)
+    int mudangSource(int arc) {
+        int low = 0;
+        int high = nodeCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (mudangOffsets.get(mid) <= arc) low = mid;
+            else high = mid - 1;
+        }
+        return low;
+    }
+
+    int mudangStart(int node) {
+        return mudangOffsets.get(node);
+    }
+
+    int mudangEnd(int node) {
+        return mudangOffsets.get(node + 1);
+    }
+
+    int mudangTarget(int arc) {
+        return mudangTargets.get(arc);
+    }
+
+    int mudangWeight(int arc) {
+        return mudangWeights.get(arc);
+    }
+
+    // 힙 밖에 잡은 전체 크기 (바이트)
+    public long offHeapBytes() {
+        long ints = 2L * nodeCount + 3L * (nodeCount + 1) + 3L * edgeCount + 4L * edgeCount + 2L * mudangCount
+                + (nameOrder != null ? nodeCount : 0);
+        return ints * Integer.BYTES + names.capacity();
+    }
+}
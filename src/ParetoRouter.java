@@ -0,0 +1,243 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+// 여러 기준(총 비용, 무당 탑승 횟수, 도보 비용)을 함께 최소화하는 label-setting 탐색
+// 노드마다 서로 지배하지 않는 label 묶음(bag)을 두고, 사전식으로 가장 작은 label부터 확정한다
+// label은 객체 대신 스레드별 int 배열에 저장하고, 지배된 label은 죽은 표시만 한다
+public final class ParetoRouter {
+    private static final ThreadLocal<Labels> LOCAL = ThreadLocal.withInitial(Labels::new);
+
+    // 한 번의 탐색에서 만들 수 있는 최대 label 수 (Pareto 집합이 폭발하는 그래프 대비)
+    static final int MAX_LABELS = 1 << 22;
+
+    // 작업 스레드 인터럽트(취소)를 확인하는 간격 (SearchWorkspace와 같다)
+    private static final int CANCEL_CHECK_MASK = 4095;
+
+    private ParetoRouter() {
+    }
+
+    // source -> target Pareto 최적 경로들 (총 비용 오름차순), 경로가 없으면 빈 목록
+    // 연속한 무당 구간은 한 번 탑승으로 센다
+    public static List<PathInfo> route(CompactGraph graph, int source, int target) {
+        if (source == target) {
+            return Collections.emptyList();
+        }
+        Labels labels = LOCAL.get();
+        labels.begin(graph.nodeCount());
+        labels.push(labels.add(source, 0, 0, 0, -1, SearchWorkspace.NO_ARC));
+        List<Integer> results = new ArrayList<>();
+        long startedAt = SearchStats.isEnabled() ? System.nanoTime() : 0;
+        int polled = 0;
+        int scannedArcs = 0;
+        int stalePops = 0;
+
+        while (!labels.isEmpty()) {
+            int label = labels.poll();
+            if (labels.dead[label]) {
+                stalePops++;
+                continue;
+            }
+            if ((++polled & CANCEL_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("탐색이 취소되었습니다.");
+            }
+            int node = labels.node[label];
+            int cost = labels.cost[label];
+            int boardings = labels.boardings[label];
+            int walk = labels.walk[label];
+            if (node == target) {
+                // 도착지에서는 타고 있는지 여부가 의미 없으므로 기준 세 개만으로 다시 거른다
+                if (!dominatedByResult(labels, results, cost, boardings, walk)) results.add(label);
+                continue;
+            }
+            boolean riding = labels.isRiding(label);
+            scannedArcs += graph.outDegree(node, true);
+
+            for (int i = graph.walkOffsets[node], end = graph.walkOffsets[node + 1]; i < end; i++) {
+                int weight = graph.walkWeights[i];
+                extend(labels, results, graph.walkTargets[i], cost + weight, boardings, walk + weight, label, i);
+            }
+            for (int i = graph.mudangOffsets[node], end = graph.mudangOffsets[node + 1]; i < end; i++) {
+                extend(labels, results, graph.mudangTargets[i], cost + graph.mudangWeights[i],
+                        riding ? boardings : boardings + 1, walk, label, ~i);
+            }
+        }
+        // label 확정 = 확정 노드, 만든 label = 힙 삽입 (키 감소는 없다)
+        if (startedAt != 0 && SearchStats.isEnabled()) {
+            SearchStats.record(SearchStats.Kind.PARETO, polled, scannedArcs, labels.count, 0, stalePops, System.nanoTime() - startedAt);
+        }
+
+        List<PathInfo> routes = new ArrayList<>(results.size());
+        for (int label : results) {
+            routes.add(PathInfo.fromPath(graph.node(source), graph.node(target), extractPath(graph, labels, label)));
+        }
+        return routes;
+    }
+
+    private static void extend(Labels labels, List<Integer> results, int node,
+                               int cost, int boardings, int walk, int parent, int arc) {
+        boolean riding = arc < 0;
+        // 도착지에서 이미 찾은 경로보다 나쁘면 더 갈 필요가 없다 (기준은 줄어들지 않으므로)
+        if (dominatedByResult(labels, results, cost, boardings, walk)) return;
+        // 같은 노드의 살아 있는 label에 지배되면 버린다
+        // 무당에 타고 있는 label은 더 타도 탑승 횟수가 늘지 않으므로, 내린 label이 탄 label을 지배하지는 못한다
+        int[] bag = labels.bag(node);
+        int size = labels.bagSize[node];
+        for (int k = 0; k < size; k++) {
+            int other = bag[k];
+            if (labels.cost[other] <= cost && labels.boardings[other] <= boardings && labels.walk[other] <= walk
+                    && (labels.isRiding(other) || !riding)) {
+                return;
+            }
+        }
+        // 새 label이 지배하는 label은 죽이고 묶음에서 뺀다
+        int write = 0;
+        for (int k = 0; k < size; k++) {
+            int other = bag[k];
+            if (cost <= labels.cost[other] && boardings <= labels.boardings[other] && walk <= labels.walk[other]
+                    && (riding || !labels.isRiding(other))) {
+                labels.dead[other] = true;
+            } else {
+                bag[write++] = other;
+            }
+        }
+        labels.bagSize[node] = write;
+        int label = labels.add(node, cost, boardings, walk, parent, arc);
+        labels.addToBag(node, label);
+        labels.push(label);
+    }
+
+    private static boolean dominatedByResult(Labels labels, List<Integer> results, int cost, int boardings, int walk) {
+        for (int result : results) {
+            if (labels.cost[result] <= cost && labels.boardings[result] <= boardings && labels.walk[result] <= walk) return true;
+        }
+        return false;
+    }
+
+    private static List<PathSegment> extractPath(CompactGraph graph, Labels labels, int label) {
+        List<PathSegment> path = new ArrayList<>();
+        for (int current = label; labels.parent[current] >= 0; current = labels.parent[current]) {
+            int from = labels.node[labels.parent[current]];
+            int to = labels.node[current];
+            int arc = labels.arc[current];
+            boolean mudang = arc < 0;
+            int weight = mudang ? graph.mudangWeights[~arc] : graph.walkWeights[arc];
+            path.add(new PathSegment(graph.node(from), graph.node(to), mudang, weight));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    // label 저장소와 label 힙 (스레드마다 하나씩 재사용)
+    private static final class Labels {
+        int[] node = new int[256];
+        int[] cost = new int[256];
+        int[] boardings = new int[256];
+        int[] walk = new int[256];
+        int[] parent = new int[256];
+        int[] arc = new int[256];
+        boolean[] dead = new boolean[256];
+        int count;
+
+        // 노드별 label 묶음
+        int[][] bags = new int[0][];
+        int[] bagSize = new int[0];
+
+        // (cost, boardings, walk) 사전식 최소 힙
+        private int[] heap = new int[256];
+        private int heapSize;
+
+        void begin(int nodeCount) {
+            if (bags.length < nodeCount) {
+                bags = Arrays.copyOf(bags, nodeCount);
+                bagSize = Arrays.copyOf(bagSize, nodeCount);
+            }
+            Arrays.fill(bagSize, 0, nodeCount, 0);
+            count = 0;
+            heapSize = 0;
+        }
+
+        int add(int at, int labelCost, int labelBoardings, int labelWalk, int labelParent, int labelArc) {
+            if (count == node.length) {
+                if (count >= MAX_LABELS) {
+                    throw new IllegalStateException("Pareto label 수가 한도(" + MAX_LABELS + ")를 넘었습니다.");
+                }
+                int capacity = count * 2;
+                node = Arrays.copyOf(node, capacity);
+                cost = Arrays.copyOf(cost, capacity);
+                boardings = Arrays.copyOf(boardings, capacity);
+                walk = Arrays.copyOf(walk, capacity);
+                parent = Arrays.copyOf(parent, capacity);
+                arc = Arrays.copyOf(arc, capacity);
+                dead = Arrays.copyOf(dead, capacity);
+            }
+            int label = count++;
+            node[label] = at;
+            cost[label] = labelCost;
+            boardings[label] = labelBoardings;
+            walk[label] = labelWalk;
+            parent[label] = labelParent;
+            arc[label] = labelArc;
+            dead[label] = false;
+            return label;
+        }
+
+        boolean isRiding(int label) {
+            return arc[label] < 0 && arc[label] != SearchWorkspace.NO_ARC;
+        }
+
+        int[] bag(int at) {
+            if (bags[at] == null) bags[at] = new int[4];
+            return bags[at];
+        }
+
+        void addToBag(int at, int label) {
+            if (bagSize[at] == bags[at].length) {
+                bags[at] = Arrays.copyOf(bags[at], bagSize[at] * 2);
+            }
+            bags[at][bagSize[at]++] = label;
+        }
+
+        boolean isEmpty() {
+            return heapSize == 0;
+        }
+
+        void push(int label) {
+            if (heapSize == heap.length) {
+                heap = Arrays.copyOf(heap, heapSize * 2);
+            }
+            int slot = heapSize++;
+            while (slot > 0) {
+                int up = (slot - 1) >>> 1;
+                if (!less(label, heap[up])) break;
+                heap[slot] = heap[up];
+                slot = up;
+            }
+            heap[slot] = label;
+        }
+
+        int poll() {
+            int top = heap[0];
+            int last = heap[--heapSize];
+            int slot = 0;
+            while (true) {
+                int child = 2 * slot + 1;
+                if (child >= heapSize) break;
+                if (child + 1 < heapSize && less(heap[child + 1], heap[child])) child++;
+                if (!less(heap[child], last)) break;
+                heap[slot] = heap[child];
+                slot = child;
+            }
+            if (heapSize > 0) heap[slot] = last;
+            return top;
+        }
+
+        private boolean less(int a, int b) {
+            if (cost[a] != cost[b]) return cost[a] < cost[b];
+            if (boardings[a] != boardings[b]) return boardings[a] < boardings[b];
+            return walk[a] < walk[b];
+        }
+    }
+}
@@ -1,3 +1,5 @@
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class PathInfo {
@@ -19,25 +21,52 @@ public class PathInfo {
     
     public static PathInfo findPathInfo(Node start, Node end, List<Edge> edges, List<Mudang> mudangs) {
         List<PathSegment> path = Dijkstra.findShortestPath(start, end, edges, mudangs);
+        return fromPath(start, end, path);
+    }
 
+    // 이미 구한 경로로 요약 정보 생성 (경로 목록은 수정할 수 없는 사본으로 보관)
+    // 구간마다 가중치를 가지고 있으므로 경로 길이에 비례하는 시간에 끝난다
+    public static PathInfo fromPath(Node start, Node end, List<PathSegment> path) {
         int totalDistance = 0;
         int mudangCount = 0;
         int roadCount = 0;
 
         for (PathSegment segment : path) {
-            totalDistance += segment.isMudang
-                ? mudangs.stream().filter(m -> m.getStart().equals(segment.from) && m.getEnd().equals(segment.to)).findFirst().get().getWeight()
-                : edges.stream().filter(e -> e.getStart().equals(segment.from) && e.getEnd().equals(segment.to)).findFirst().get().getWeight();
+            totalDistance += segment.weight;
 
             if (segment.isMudang) mudangCount++;
             else roadCount++;
         }
 
-        return new PathInfo(start, end, path, totalDistance, mudangCount, roadCount);
+        return new PathInfo(start, end, Collections.unmodifiableList(new ArrayList<>(path)), totalDistance, mudangCount, roadCount);
+    }
+
+    // 무당 탑승 횟수 (연속한 무당 구간은 한 번 탄 것으로 센다)
+    public int boardingCount() {
+        int boardings = 0;
+        boolean riding = false;
+        for (PathSegment segment : path) {
+            if (segment.isMudang && !riding) boardings++;
+            riding = segment.isMudang;
+        }
+        return boardings;
+    }
+
+    // 보도 구간 가중치 합
+    public int walkDistance() {
+        int walk = 0;
+        for (PathSegment segment : path) {
+            if (!segment.isMudang) walk += segment.weight;
+        }
+        return walk;
     }
     
-    // 경로 세부 정보를 문자열로 반환
+    // 경로 세부 정보를 문자열로 반환 (가중치는 구간에 기록된 값을 사용하므로 리스트는 쓰지 않는다)
     public String getDetailedPathInfo(List<Edge> edges, List<Mudang> mudangs) {
+        return getDetailedPathInfo();
+    }
+
+    public String getDetailedPathInfo() {
         StringBuilder details = new StringBuilder();
         details.append("경로: ");
         Node previous = null;
@@ -49,11 +78,7 @@ public class PathInfo {
             details.append(segment.from.name);
 
             // 구간 정보 추가
-            int weight = segment.isMudang
-                ? mudangs.stream().filter(m -> m.getStart().equals(segment.from) && m.getEnd().equals(segment.to)).findFirst().get().getWeight()
-                : edges.stream().filter(e -> e.getStart().equals(segment.from) && e.getEnd().equals(segment.to)).findFirst().get().getWeight();
-
-            details.append(String.format("(%s: %d)", segment.isMudang ? "무당" : "보도", weight));
+            details.append('(').append(segment.isMudang ? "무당" : "보도").append(": ").append(segment.weight).append(')');
             previous = segment.to;
         }
 
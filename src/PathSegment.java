@@ -2,10 +2,12 @@ public class PathSegment {
     public final Node from;
     public final Node to;
     public final boolean isMudang;
+    public final int weight; // 탐색 시 실제로 사용한 구간의 가중치
 
-    public PathSegment(Node from, Node to, boolean isMudang) {
+    public PathSegment(Node from, Node to, boolean isMudang, int weight) {
         this.from = from;
         this.to = to;
         this.isMudang = isMudang;
+        this.weight = weight;
     }
 }
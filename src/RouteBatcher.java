@@ -0,0 +1,147 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// 같은 출발지(같은 그래프 스냅샷, 같은 무당 포함 여부)로 거의 동시에 들어온 경로 요청을 탐색 한 번으로 묶는다
+// 먼저 온 요청이 대표가 되어 window 동안 다른 요청을 기다린 뒤, 모인 도착지가 모두 확정될 때까지 Dijkstra를 한 번 돌리고
+// 같은 탐색 트리에서 각 도착지까지의 경로를 꺼내 나눠 준다 (나머지 요청 스레드는 결과가 나올 때까지 기다린다)
+public final class RouteBatcher {
+    private final long windowNanos;
+    private final ConcurrentHashMap<Key, Batch> open = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder searches = new LongAdder();
+
+    public RouteBatcher(long windowNanos) {
+        this.windowNanos = windowNanos;
+    }
+
+    // source -> target 최단 경로 (경로가 없으면 빈 목록)
+    public List<PathSegment> route(CompactGraph graph, int source, int target, boolean useMudang) {
+        requests.increment();
+        Key key = new Key(graph, source, useMudang);
+        while (true) {
+            Batch batch = open.get(key);
+            if (batch == null) {
+                Batch created = new Batch();
+                Request own = created.add(target);
+                if (open.putIfAbsent(key, created) == null) {
+                    return lead(key, created, own);
+                }
+                continue;
+            }
+            Request request = batch.add(target);
+            if (request != null) {
+                return request.await();
+            }
+            // 대표가 이미 탐색을 시작한 묶음이면 새 묶음을 만든다
+        }
+    }
+
+    // 기다렸다가 묶음을 닫고 탐색한 뒤 모든 요청에 결과를 채운다
+    private List<PathSegment> lead(Key key, Batch batch, Request own) {
+        LockSupport.parkNanos(windowNanos);
+        open.remove(key, batch);
+        List<Request> members = batch.close();
+        searches.increment();
+        try {
+            CompactGraph graph = key.graph;
+            boolean[] isTarget = new boolean[graph.nodeCount()];
+            int distinctTargets = 0;
+            for (Request member : members) {
+                if (!isTarget[member.target]) {
+                    isTarget[member.target] = true;
+                    distinctTargets++;
+                }
+            }
+            SearchWorkspace workspace = SearchWorkspace.current(graph.nodeCount());
+            DistanceMatrix.search(graph, key.source, isTarget, distinctTargets, key.useMudang, workspace);
+            for (Request member : members) {
+                member.result.complete(workspace.distanceOf(member.target) == Integer.MAX_VALUE
+                        ? Collections.emptyList()
+                        : DijkstraEngine.extractPath(graph, workspace, member.target));
+            }
+        } catch (Throwable e) {
+            for (Request member : members) {
+                member.result.completeExceptionally(e);
+            }
+        }
+        return own.await();
+    }
+
+    // 지금까지 받은 경로 요청 수
+    public long requestCount() {
+        return requests.sum();
+    }
+
+    // 실제로 실행한 탐색 수 (requestCount / searchCount = 평균 묶음 크기)
+    public long searchCount() {
+        return searches.sum();
+    }
+
+    private static final class Batch {
+        private final List<Request> members = new ArrayList<>();
+        private boolean closed;
+
+        // 닫힌 묶음이면 null
+        synchronized Request add(int target) {
+            if (closed) return null;
+            Request request = new Request(target);
+            members.add(request);
+            return request;
+        }
+
+        synchronized List<Request> close() {
+            closed = true;
+            return members;
+        }
+    }
+
+    private static final class Request {
+        final int target;
+        final CompletableFuture<List<PathSegment>> result = new CompletableFuture<>();
+
+        Request(int target) {
+            this.target = target;
+        }
+
+        List<PathSegment> await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                throw e;
+            }
+        }
+    }
+
+    private static final class Key {
+        final CompactGraph graph;
+        final int source;
+        final boolean useMudang;
+
+        Key(CompactGraph graph, int source, boolean useMudang) {
+            this.graph = graph;
+            this.source = source;
+            this.useMudang = useMudang;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return graph == other.graph && source == other.source && useMudang == other.useMudang;
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * System.identityHashCode(graph) + source) * 2 + (useMudang ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// (출발지, 도착지, 무당 포함 여부)별 PathInfo를 보관하는 크기 제한 LRU 캐시
+// GraphManager의 버전이 바뀌면 다음 조회 때 전부 비운다
+public final class RouteCache {
+    private final GraphManager graphManager;
+    private final int maxSize;
+    private final LinkedHashMap<Key, PathInfo> entries;
+    private long cachedVersion;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RouteCache(GraphManager graphManager, int maxSize) {
+        this.graphManager = graphManager;
+        this.maxSize = maxSize;
+        this.cachedVersion = graphManager.getVersion();
+        // accessOrder = true: 조회할 때마다 가장 최근 항목으로 옮긴다
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, PathInfo> eldest) {
+                if (size() > RouteCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // 캐시에 있으면 그대로, 없으면 경로를 구해 저장한 뒤 반환 (반환값은 공유되는 불변 객체)
+    public PathInfo get(Node start, Node end, boolean includeMudang) {
+        return get(start, end, includeMudang, () -> PathInfo.fromPath(start, end, graphManager.findPath(start, end, includeMudang)));
+    }
+
+    // 없을 때 loader로 경로를 구한다 (loader는 잠금 밖에서 호출되며 현재 그래프 기준 결과를 돌려줘야 한다)
+    public PathInfo get(Node start, Node end, boolean includeMudang, Supplier<PathInfo> loader) {
+        return get(start, end, includeMudang, -1, loader);
+    }
+
+    // loader가 미리 받아 둔 그래프로 탐색할 때: graphVersion은 그 그래프를 받기 전에 읽은 GraphManager 버전
+    // 그 사이에 그래프가 바뀌었으면 (조회 시점 버전과 다르면) 결과를 돌려주기만 하고 저장하지 않는다
+    public PathInfo get(Node start, Node end, boolean includeMudang, long graphVersion, Supplier<PathInfo> loader) {
+        Key key = new Key(start, end, includeMudang);
+        long version;
+        synchronized (entries) {
+            version = graphManager.getVersion();
+            if (version != cachedVersion) {
+                entries.clear();
+                cachedVersion = version;
+            }
+            PathInfo cached = entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+
+        // 탐색은 잠금 밖에서 수행 (같은 키를 동시에 구하면 한쪽 결과만 남는다)
+        PathInfo pathInfo = loader.get();
+
+        synchronized (entries) {
+            // 탐색 중에 그래프가 바뀌었으면 오래된 결과를 저장하지 않는다
+            if (cachedVersion == version && graphManager.getVersion() == version && (graphVersion < 0 || graphVersion == version)) {
+                entries.put(key, pathInfo);
+            }
+        }
+        return pathInfo;
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RouteCache[size=%d/%d, hits=%d, misses=%d, evictions=%d]",
+                size(), maxSize, hitCount(), missCount(), evictionCount());
+    }
+
+    private static final class Key {
+        final Node start;
+        final Node end;
+        final boolean includeMudang;
+
+        Key(Node start, Node end, boolean includeMudang) {
+            this.start = start;
+            this.end = end;
+            this.includeMudang = includeMudang;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return start.equals(other.start) && end.equals(other.end) && includeMudang == other.includeMudang;
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * start.hashCode() + end.hashCode()) * 2 + (includeMudang ? 1 : 0);
+        }
+    }
+}
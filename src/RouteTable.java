@@ -0,0 +1,368 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// 모든 출발지-도착지 쌍의 최단 거리와 다음 노드(next hop)를 미리 계산해 둔 표
+// 경로 질의는 탐색 없이 표를 따라 걷기만 하면 된다
+// 열 j의 nextHop은 j로 가는 최단 경로 트리(각 노드의 부모 = 다음 노드)이므로, 엣지 비용이 바뀌면 그 트리에서 영향받는 부분만 고친다
+public final class RouteTable {
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    // 표를 만드는 최대 노드 수 (표 하나가 n * n * 9바이트라 2048개면 약 38MB), 넘으면 GraphManager가 탐색으로 대신한다
+    public static final int MAX_NODES = 2048;
+
+    // 비용 증가 복구에 쓰는 스레드별 작업 공간
+    private static final ThreadLocal<Repair> REPAIR = ThreadLocal.withInitial(Repair::new);
+
+    private Node[] nodes;
+    private final boolean includeMudang;
+    private int n;
+
+    // 행 우선 n * n 배열: [i * n + j] = i에서 j로 가는 값
+    private int[] distance;
+    private int[] nextHop;          // i에서 j로 갈 때 처음 밟는 노드 (-1이면 없음)
+    private boolean[] nextMudang;   // 그 첫 구간이 무당인지
+
+    private RouteTable(Node[] nodes, boolean includeMudang) {
+        this.nodes = nodes;
+        this.includeMudang = includeMudang;
+    }
+
+    // 출발지마다 Dijkstra를 fork-join 풀에서 병렬로 돌려 표를 채운다
+    public static RouteTable build(CompactGraph graph, boolean includeMudang) {
+        int n = graph.nodeCount();
+        int cells = cells(n);
+        RouteTable table = new RouteTable(graph.nodeList().toArray(new Node[0]), includeMudang);
+        table.n = n;
+        table.distance = new int[cells];
+        table.nextHop = new int[cells];
+        table.nextMudang = new boolean[cells];
+        IntStream.range(0, n).parallel().forEach(source -> table.fillRow(graph, source));
+        return table;
+    }
+
+    // n * n 칸 수 (MAX_NODES를 넘으면 만들지 않는다)
+    private static int cells(int n) {
+        if (n > MAX_NODES) {
+            throw new IllegalArgumentException("경로표를 만들기에는 노드가 너무 많습니다: " + n + " > " + MAX_NODES);
+        }
+        return n * n;
+    }
+
+    private void fillRow(CompactGraph graph, int source) {
+        SearchWorkspace workspace = SearchWorkspace.current(n);
+        DijkstraEngine.search(graph, source, -1, includeMudang, workspace);
+
+        int row = source * n;
+        Arrays.fill(nextHop, row, row + n, -1);
+        for (int v = 0; v < n; v++) {
+            distance[row + v] = workspace.distanceOf(v);
+        }
+        // 탐색 트리를 거슬러 올라가며 첫 구간을 찾고, 지나온 노드에 같은 값을 채운다
+        for (int v = 0; v < n; v++) {
+            if (v == source || nextHop[row + v] >= 0 || !workspace.isReached(v)) continue;
+            int step = v;
+            while (workspace.parent[step] != source && nextHop[row + workspace.parent[step]] < 0) {
+                step = workspace.parent[step];
+            }
+            int hop;
+            boolean mudang;
+            if (workspace.parent[step] == source) {
+                hop = step;
+                mudang = workspace.parentArc[step] < 0;
+            } else {
+                hop = nextHop[row + workspace.parent[step]];
+                mudang = nextMudang[row + workspace.parent[step]];
+            }
+            for (int w = v; w != source && nextHop[row + w] < 0; w = workspace.parent[w]) {
+                nextHop[row + w] = hop;
+                nextMudang[row + w] = mudang;
+            }
+        }
+    }
+
+    public boolean includesMudang() {
+        return includeMudang;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    // 최단 거리 (도달 불가면 Integer.MAX_VALUE)
+    public int distance(int source, int target) {
+        return distance[source * n + target];
+    }
+
+    // 표를 따라 걸으며 경로 복원 (경로가 없으면 빈 목록)
+    public List<PathSegment> route(int source, int target) {
+        if (source == target || distance[source * n + target] == UNREACHABLE) {
+            return Collections.emptyList();
+        }
+        List<PathSegment> path = new ArrayList<>();
+        int current = source;
+        while (current != target && path.size() < n) {
+            int cell = current * n + target;
+            int hop = nextHop[cell];
+            // 최단 경로 위의 구간이므로 가중치는 남은 거리의 차이와 같다
+            int weight = distance[cell] - distance[hop * n + target];
+            path.add(new PathSegment(nodes[current], nodes[hop], nextMudang[cell], weight));
+            current = hop;
+        }
+        return path;
+    }
+
+    // 수정용 사본 (GraphManager는 사본을 고친 뒤 교체하므로 읽는 쪽은 이전 표를 그대로 쓴다)
+    public RouteTable copy() {
+        RouteTable table = new RouteTable(nodes, includeMudang);
+        table.n = n;
+        table.distance = distance.clone();
+        table.nextHop = nextHop.clone();
+        table.nextMudang = nextMudang.clone();
+        return table;
+    }
+
+    // 고립된 새 노드 추가: 기존 값은 그대로 두고 행과 열만 늘린다
+    public void addNode(Node node) {
+        int m = n + 1;
+        int cells = cells(m);
+        nodes = Arrays.copyOf(nodes, m);
+        nodes[n] = node;
+        int[] newDistance = new int[cells];
+        int[] newNextHop = new int[cells];
+        boolean[] newNextMudang = new boolean[cells];
+        Arrays.fill(newDistance, UNREACHABLE);
+        Arrays.fill(newNextHop, -1);
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(distance, i * n, newDistance, i * m, n);
+            System.arraycopy(nextHop, i * n, newNextHop, i * m, n);
+            System.arraycopy(nextMudang, i * n, newNextMudang, i * m, n);
+        }
+        newDistance[n * m + n] = 0;
+        distance = newDistance;
+        nextHop = newNextHop;
+        nextMudang = newNextMudang;
+        n = m;
+    }
+
+    // 양방향 보도 u-v 추가
+    public void addEdge(int u, int v, int cost) {
+        relaxArc(u, v, cost, false);
+        relaxArc(v, u, cost, false);
+    }
+
+    // 보도 u-v 비용 변경 (oldCost < 0 이면 새 보도, newCost < 0 이면 삭제)
+    // graph는 변경이 반영된 그래프로, 비용이 늘어난 경우 영향받은 노드의 거리를 다시 구할 때 쓴다
+    public void updateEdge(CompactGraph graph, int u, int v, int oldCost, int newCost) {
+        changeArcs(graph, new int[]{u, v}, new int[]{v, u}, oldCost, newCost, false);
+    }
+
+    // 무당 u->v 비용 변경 (oldCost < 0 이면 켜짐, newCost < 0 이면 꺼짐), 보도 전용 표는 그대로 둔다
+    public void updateMudang(CompactGraph graph, int u, int v, int oldCost, int newCost) {
+        if (includeMudang) {
+            changeArcs(graph, new int[]{u}, new int[]{v}, oldCost, newCost, true);
+        }
+    }
+
+    private void changeArcs(CompactGraph graph, int[] tails, int[] heads, int oldCost, int newCost, boolean mudang) {
+        if (oldCost == newCost) {
+            return;
+        }
+        if (oldCost < 0 || (newCost >= 0 && newCost < oldCost)) {
+            // 비용 감소(또는 추가): 바뀐 arc를 지나는 경로로만 짧아질 수 있다
+            for (int k = 0; k < tails.length; k++) {
+                relaxArc(tails[k], heads[k], newCost, mudang);
+            }
+        } else {
+            // 비용 증가(또는 삭제): 바뀐 arc를 최단 경로 트리에 쓰던 열만 고친다
+            IntStream.range(0, n).parallel().forEach(j -> repairColumn(graph, j, tails, heads, oldCost, mudang));
+        }
+    }
+
+    // arc u->v(비용 cost) 추가: d[i][j] = min(d[i][j], d[i][u] + cost + d[v][j])
+    private void relaxArc(int u, int v, int cost, boolean mudang) {
+        int[] fromV = Arrays.copyOfRange(distance, v * n, v * n + n);
+        IntStream.range(0, n).parallel().forEach(i -> relaxRow(i, u, v, cost, mudang, fromV));
+    }
+
+    private void relaxRow(int i, int u, int v, int cost, boolean mudang, int[] fromV) {
+        int row = i * n;
+        int toU = distance[row + u];
+        if (toU == UNREACHABLE) return;
+        // i == u 이면 첫 구간은 바뀐 arc 자체
+        int hop = i == u ? v : nextHop[row + u];
+        boolean hopMudang = i == u ? mudang : nextMudang[row + u];
+
+        for (int j = 0; j < n; j++) {
+            if (fromV[j] == UNREACHABLE) continue;
+            long candidate = (long) toU + cost + fromV[j];
+            int cell = row + j;
+            if (candidate < distance[cell]) {
+                distance[cell] = (int) candidate;
+                nextHop[cell] = hop;
+                nextMudang[cell] = hopMudang;
+            }
+        }
+    }
+
+    // Ramalingam-Reps 방식의 비용 증가 복구 (열 j = j로 가는 최단 경로 트리)
+    // 1. 바뀐 arc를 트리에 쓰는 노드와 그 아래(그 노드를 거쳐 j로 가는 노드)만 영향받는다
+    // 2. 영향받은 노드는 영향받지 않은 이웃을 거치는 값으로 초기화한 뒤, 그 안에서만 Dijkstra로 거리를 확정한다
+    private void repairColumn(CompactGraph graph, int j, int[] tails, int[] heads, int oldCost, boolean mudang) {
+        boolean used = false;
+        boolean[] usedArc = new boolean[tails.length];
+        for (int k = 0; k < tails.length; k++) {
+            int cell = tails[k] * n + j;
+            int next = heads[k] * n + j;
+            usedArc[k] = nextHop[cell] == heads[k] && nextMudang[cell] == mudang
+                    && distance[next] != UNREACHABLE && (long) distance[next] + oldCost == distance[cell];
+            used |= usedArc[k];
+        }
+        if (!used) return;
+
+        Repair repair = REPAIR.get();
+        repair.begin(n);
+        int affectedCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (repair.classify(this, i, j, tails, usedArc)) {
+                repair.affected[affectedCount++] = i;
+            }
+        }
+
+        // 영향받은 노드: 영향받지 않은 이웃 b를 거치는 값 cost(a, b) + d[b][j] 중 최솟값으로 시작
+        IndexedMinHeap heap = repair.heap;
+        for (int k = 0; k < affectedCount; k++) {
+            int a = repair.affected[k];
+            int cell = a * n + j;
+            distance[cell] = UNREACHABLE;
+            nextHop[cell] = -1;
+            nextMudang[cell] = false;
+            for (int i = graph.walkOffsets[a], end = graph.walkOffsets[a + 1]; i < end; i++) {
+                seed(repair, cell, graph.walkTargets[i], graph.walkWeights[i], false, j);
+            }
+            if (includeMudang) {
+                for (int i = graph.mudangOffsets[a], end = graph.mudangOffsets[a + 1]; i < end; i++) {
+                    seed(repair, cell, graph.mudangTargets[i], graph.mudangWeights[i], true, j);
+                }
+            }
+            if (distance[cell] != UNREACHABLE) {
+                heap.insertOrDecrease(a, distance[cell]);
+            }
+        }
+
+        // 영향받은 노드끼리만 역방향으로 전파 (a가 확정되면 a로 들어오는 arc의 꼬리 p를 갱신)
+        while (!heap.isEmpty()) {
+            int a = heap.poll();
+            int base = distance[a * n + j];
+            for (int i = graph.walkOffsets[a], end = graph.walkOffsets[a + 1]; i < end; i++) {
+                propagate(repair, graph.walkTargets[i], a, base + (long) graph.walkWeights[i], false, j);
+            }
+            if (includeMudang) {
+                for (int k = graph.mudangInOffsets[a], end = graph.mudangInOffsets[a + 1]; k < end; k++) {
+                    propagate(repair, graph.mudangInSources[k], a, base + (long) graph.mudangWeights[graph.mudangInArcs[k]], true, j);
+                }
+            }
+        }
+    }
+
+    private void seed(Repair repair, int cell, int neighbor, int cost, boolean mudang, int j) {
+        if (repair.isAffected(neighbor)) return;
+        int rest = distance[neighbor * n + j];
+        if (rest == UNREACHABLE) return;
+        long candidate = (long) rest + cost;
+        if (candidate < distance[cell]) {
+            distance[cell] = (int) candidate;
+            nextHop[cell] = neighbor;
+            nextMudang[cell] = mudang;
+        }
+    }
+
+    private void propagate(Repair repair, int p, int a, long candidate, boolean mudang, int j) {
+        if (!repair.isAffected(p)) return;
+        int cell = p * n + j;
+        if (candidate < distance[cell]) {
+            distance[cell] = (int) candidate;
+            nextHop[cell] = a;
+            nextMudang[cell] = mudang;
+            repair.heap.insertOrDecrease(p, (int) candidate);
+        }
+    }
+
+    // 열 하나를 복구하는 동안 쓰는 배열 (세대 번호로 초기화를 생략)
+    private static final class Repair {
+        final IndexedMinHeap heap = new IndexedMinHeap();
+        int[] affected = new int[0];  // 영향받은 노드 목록
+        private int[] seen = new int[0];
+        private int[] hit = new int[0];
+        private int[] stack = new int[0];
+        private int stamp;
+
+        void begin(int n) {
+            if (seen.length < n) {
+                affected = new int[n];
+                seen = new int[n];
+                hit = new int[n];
+                stack = new int[n];
+                stamp = 0;
+            }
+            heap.ensureCapacity(n);
+            heap.clear();
+            if (++stamp == 0) {
+                Arrays.fill(seen, 0);
+                Arrays.fill(hit, 0);
+                stamp = 1;
+            }
+        }
+
+        boolean isAffected(int node) {
+            return hit[node] == stamp;
+        }
+
+        // 다음 노드를 따라가며 바뀐 arc를 지나는지 판정하고, 지나온 노드에 같은 결과를 기록
+        boolean classify(RouteTable table, int start, int j, int[] tails, boolean[] usedArc) {
+            int depth = 0;
+            int node = start;
+            boolean result;
+            while (true) {
+                if (seen[node] == stamp) {
+                    result = hit[node] == stamp;
+                    break;
+                }
+                if (node == j || table.nextHop[node * table.n + j] < 0) {
+                    result = false;
+                    break;
+                }
+                if (usesChangedArc(node, tails, usedArc)) {
+                    result = true;
+                    break;
+                }
+                // 다음 노드가 순환하면(비용 0 엣지) 끝까지 따라가지 않고 영향받은 것으로 보고 다시 계산한다
+                if (depth == stack.length) {
+                    result = true;
+                    break;
+                }
+                stack[depth++] = node;
+                node = table.nextHop[node * table.n + j];
+            }
+            mark(node, result);
+            while (depth > 0) {
+                mark(stack[--depth], result);
+            }
+            return result;
+        }
+
+        private void mark(int node, boolean affectedNode) {
+            seen[node] = stamp;
+            if (affectedNode) hit[node] = stamp;
+        }
+
+        private static boolean usesChangedArc(int node, int[] tails, boolean[] usedArc) {
+            for (int k = 0; k < tails.length; k++) {
+                if (usedArc[k] && tails[k] == node) return true;
+            }
+            return false;
+        }
+    }
+}
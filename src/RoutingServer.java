@@ -0,0 +1,552 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Swing 없이 경로 탐색을 HTTP(JSON)로 제공하는 내장 서버
+//
+//   java Main --serve [--host 127.0.0.1] [--port 8080] [--threads N]
+//
+//   GET /route?from=정문&to=운동장[&mudang=false][&depart=08:05]   (depart: 그 시각에 출발, 무당은 시간표의 다음 편을 기다린다)
+//   GET /matrix?source=정문&source=비타&target=중도&target=운동장[&mudang=false]
+//   GET /isochrone?from=정문&budget=3&budget=6[&mudang=false]
+//   GET /suggest?q=ㅎㅅ[&limit=10]   (이름 앞부분, 초성만 쳐도 된다)
+//   GET /metrics
+//   POST /edge?from=정문&to=비타&cost=4[&closed=true]             (보도 비용 변경, closed=true면 통행 불가로 삭제)
+//   POST /mudang?from=반단대&to=교대&cost=2[&enabled=false]       (무당 구간 비용 변경, enabled로 운행 중단/재개)
+//
+// 이름에 쉼표가 들어갈 수 있으므로("1,2긱") 여러 노드는 같은 파라미터를 반복해서 넘긴다
+// 같은 출발지로 동시에 들어온 /route 요청은 RouteBatcher가 탐색 한 번으로 묶고, 결과는 RouteCache에 보관한다
+// --graph로 연 지도의 /route, /suggest는 힙 배열 사본(CompactGraph)을 만들지 않고 GraphManager가 힙 밖 그래프에서 바로 찾는다
+public final class RoutingServer {
+    static final int DEFAULT_PORT = 8080;
+    private static final int ROUTE_CACHE_SIZE = 4096;
+    // 같은 출발지 요청을 모으는 시간
+    private static final long BATCH_WINDOW_NANOS = 200_000;
+    // /matrix 한 번에 허용하는 최대 칸 수
+    private static final int MAX_MATRIX_CELLS = 1 << 20;
+    // /suggest 기본 / 최대 결과 수
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    private static final int MAX_SUGGESTIONS = 100;
+    // 최근 초당 요청 수를 계산하는 구간 (초)
+    private static final int RECENT_SECONDS = 10;
+
+    private final GraphManager graphManager;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final RouteCache routeCache;
+    private final RouteBatcher batcher = new RouteBatcher(BATCH_WINDOW_NANOS);
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>(); // 생성자에서만 채운다
+    private final long startedAt = System.nanoTime();
+
+    // 그래프 스냅샷별 이름 -> 노드 번호 (스냅샷이 바뀌면 다시 만든다)
+    private volatile NameIndex names;
+
+    public RoutingServer(GraphManager graphManager, String host, int port, int threads) throws IOException {
+        this.graphManager = graphManager;
+        this.routeCache = new RouteCache(graphManager, ROUTE_CACHE_SIZE);
+        this.server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "http-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        register("/route", "GET", this::route);
+        register("/matrix", "GET", this::matrix);
+        register("/isochrone", "GET", this::isochrone);
+        register("/suggest", "GET", this::suggest);
+        register("/metrics", "GET", query -> metrics());
+        register("/edge", "POST", this::edge);
+        register("/mudang", "POST", this::mudang);
+    }
+
+    public static void run(GraphManager graphManager, String[] args) throws IOException {
+        String host = Main.optionValue(args, "--host");
+        String portOption = Main.optionValue(args, "--port");
+        String threadOption = Main.optionValue(args, "--threads");
+        int port = portOption != null ? Integer.parseInt(portOption) : DEFAULT_PORT;
+        int threads = threadOption != null ? Integer.parseInt(threadOption) : Runtime.getRuntime().availableProcessors() * 4;
+
+        RoutingServer routingServer = new RoutingServer(graphManager, host != null ? host : "127.0.0.1", port, threads);
+        routingServer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(routingServer::stop));
+        System.out.println("경로 서버 시작: http://" + routingServer.server.getAddress().getHostString() + ":" + routingServer.port());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // 실제로 열린 포트 (0을 주면 빈 포트가 골라진다)
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    private void register(String path, String method, Handler handler) {
+        EndpointStats endpoint = new EndpointStats();
+        stats.put(path, endpoint);
+        server.createContext(path, exchange -> handle(exchange, method, endpoint, handler));
+    }
+
+    // 요청 하나 처리: JSON 응답을 보내고 지연 시간/오류 수를 기록한다
+    private void handle(HttpExchange exchange, String method, EndpointStats endpoint, Handler handler) throws IOException {
+        long started = System.nanoTime();
+        int status = 200;
+        String body;
+        try {
+            if (!method.equals(exchange.getRequestMethod())) {
+                throw new RequestException(405, method + "만 지원합니다.");
+            }
+            body = handler.handle(parseQuery(exchange.getRequestURI().getRawQuery()));
+        } catch (RequestException e) {
+            status = e.status;
+            body = "{\"error\":" + BatchRouter.jsonString(e.getMessage()) + "}";
+        } catch (RuntimeException e) {
+            status = 500;
+            body = "{\"error\":" + BatchRouter.jsonString(String.valueOf(e)) + "}";
+        }
+        try {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            exchange.close();
+            endpoint.record(System.nanoTime() - started, status >= 400);
+        }
+    }
+
+    private String route(Map<String, List<String>> query) throws RequestException {
+        // 무당을 타지 않으면 출발 시각과 상관없으므로 보통 경로로 처리한다
+        if (query.containsKey("depart") && flag(query, "mudang")) {
+            return timedRoute(query, parseTime(single(query, "depart")));
+        }
+        if (graphManager.getOffHeapGraph() != null) {
+            return fileRoute(query);
+        }
+        // 버전을 그래프보다 먼저 읽는다: 그래프는 이 버전이거나 더 새것이고, 더 새것이면 캐시가 저장하지 않는다
+        long version = graphManager.getVersion();
+        CompactGraph graph = graphManager.getCompactGraph();
+        NameIndex index = names(graph);
+        int source = index.require(single(query, "from"));
+        int target = index.require(single(query, "to"));
+        boolean useMudang = flag(query, "mudang");
+        Node start = graph.node(source);
+        Node end = graph.node(target);
+        PathInfo info = routeCache.get(start, end, useMudang, version,
+                () -> PathInfo.fromPath(start, end, batcher.route(graph, source, target, useMudang)));
+        return routeJson(info, source == target || !info.path.isEmpty());
+    }
+
+    // 파일에서 연 지도: 읽기 전용이라 버전이 바뀌지 않으므로 묶음 처리 없이 GraphManager.findPath 결과를 캐시한다
+    private String fileRoute(Map<String, List<String>> query) throws RequestException {
+        NodeNameIndex index = graphManager.getNameIndex();
+        int source = require(index, single(query, "from"));
+        int target = require(index, single(query, "to"));
+        PathInfo info = routeCache.get(graphManager.getNode(source), graphManager.getNode(target), flag(query, "mudang"));
+        return routeJson(info, source == target || !info.path.isEmpty());
+    }
+
+    // 출발 시각 기준 경로 (구간 가중치에 무당 기다린 시간이 들어간다), 결과가 시각마다 달라 캐시/묶음 처리는 쓰지 않는다
+    private String timedRoute(Map<String, List<String>> query, int departure) throws RequestException {
+        TimeDependentRouter router = graphManager.getTimeDependentRouter();
+        CompactGraph graph = router.graph();
+        NameIndex index = names(graph);
+        int source = index.require(single(query, "from"));
+        int target = index.require(single(query, "to"));
+        List<PathSegment> path = router.route(source, target, departure);
+        PathInfo info = PathInfo.fromPath(graph.node(source), graph.node(target), path);
+        boolean found = source == target || !path.isEmpty();
+        // 도착 시각(분)은 하루를 넘기면 1440 이상이 된다
+        return "{\"departure\":" + departure + ",\"arrival\":" + (found ? Integer.toString(departure + info.totalDistance) : "null")
+                + "," + routeJson(info, found).substring(1);
+    }
+
+    private String matrix(Map<String, List<String>> query) throws RequestException {
+        CompactGraph graph = graphManager.getCompactGraph();
+        NameIndex index = names(graph);
+        List<String> sourceNames = all(query, "source");
+        List<String> targetNames = all(query, "target");
+        if ((long) sourceNames.size() * targetNames.size() > MAX_MATRIX_CELLS) {
+            throw new RequestException(400, "행렬이 너무 큽니다 (최대 " + MAX_MATRIX_CELLS + "칸).");
+        }
+        int[] sources = index.requireAll(sourceNames);
+        int[] targets = index.requireAll(targetNames);
+        int[] distances = DistanceMatrix.matrix(graph, sources, targets, flag(query, "mudang"));
+
+        StringBuilder json = new StringBuilder("{\"sources\":");
+        appendNames(json, sourceNames);
+        json.append(",\"targets\":");
+        appendNames(json, targetNames);
+        json.append(",\"distances\":[");
+        for (int i = 0; i < sources.length; i++) {
+            if (i > 0) json.append(',');
+            json.append('[');
+            for (int j = 0; j < targets.length; j++) {
+                if (j > 0) json.append(',');
+                int distance = distances[i * targets.length + j];
+                json.append(distance == Integer.MAX_VALUE ? "null" : Integer.toString(distance));
+            }
+            json.append(']');
+        }
+        return json.append("]}").toString();
+    }
+
+    // 자동 완성: 이름이 q로 시작하는 노드들
+    private String suggest(Map<String, List<String>> query) throws RequestException {
+        String prefix = single(query, "q");
+        List<String> limitValues = query.get("limit");
+        int limit = DEFAULT_SUGGESTIONS;
+        if (limitValues != null) {
+            String value = limitValues.get(limitValues.size() - 1);
+            try {
+                limit = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                limit = -1;
+            }
+            if (limit < 1 || limit > MAX_SUGGESTIONS) {
+                throw new RequestException(400, "limit는 1 이상 " + MAX_SUGGESTIONS + " 이하의 정수여야 합니다: " + value);
+            }
+        }
+        StringBuilder json = new StringBuilder("{\"query\":").append(BatchRouter.jsonString(prefix)).append(",\"names\":[");
+        // 이름만 돌려주므로 그래프 스냅샷 대신 GraphManager의 색인과 노드 id를 쓴다
+        int[] found = graphManager.getNameIndex().search(prefix, limit);
+        for (int i = 0; i < found.length; i++) {
+            if (i > 0) json.append(',');
+            json.append(BatchRouter.jsonString(graphManager.getNode(found[i]).name));
+        }
+        return json.append("]}").toString();
+    }
+
+    private String isochrone(Map<String, List<String>> query) throws RequestException {
+        CompactGraph graph = graphManager.getCompactGraph();
+        int source = names(graph).require(single(query, "from"));
+        List<String> budgetValues = all(query, "budget");
+        int[] budgets = new int[budgetValues.size()];
+        int maxBudget = 0;
+        for (int i = 0; i < budgets.length; i++) {
+            budgets[i] = parseBudget(budgetValues.get(i));
+            maxBudget = Math.max(maxBudget, budgets[i]);
+        }
+        // 예산이 여러 개여도 가장 큰 예산으로 한 번만 탐색한다
+        Isochrone isochrone = Isochrone.compute(graph, source, maxBudget, flag(query, "mudang"));
+
+        StringBuilder json = new StringBuilder("{\"start\":").append(BatchRouter.jsonString(graph.node(source).name));
+        json.append(",\"budgets\":[");
+        for (int b = 0; b < budgets.length; b++) {
+            if (b > 0) json.append(',');
+            json.append("{\"budget\":").append(budgets[b]).append(",\"nodes\":[");
+            for (int k = 0, count = isochrone.countWithin(budgets[b]); k < count; k++) {
+                if (k > 0) json.append(',');
+                json.append("{\"name\":").append(BatchRouter.jsonString(graph.node(isochrone.node(k)).name))
+                        .append(",\"distance\":").append(isochrone.distanceAt(k)).append('}');
+            }
+            json.append("]}");
+        }
+        return json.append("]}").toString();
+    }
+
+    // 보도 비용 변경/삭제 (경로표는 GraphManager가 영향받은 부분만 고치고, 경로 캐시는 버전이 바뀌어 비워진다)
+    private String edge(Map<String, List<String>> query) throws RequestException {
+        checkEditable();
+        String from = single(query, "from");
+        String to = single(query, "to");
+        boolean changed = query.containsKey("closed") && flag(query, "closed")
+                ? graphManager.removeEdge(from, to)
+                : graphManager.updateEdgeCost(from, to, parseCost(single(query, "cost")));
+        if (!changed) {
+            throw new RequestException(404, "보도가 없습니다: " + from + " - " + to);
+        }
+        return "{\"version\":" + graphManager.getVersion() + "}";
+    }
+
+    // 무당 구간 비용 변경, enabled가 있으면 운행 중단/재개
+    private String mudang(Map<String, List<String>> query) throws RequestException {
+        checkEditable();
+        String from = single(query, "from");
+        String to = single(query, "to");
+        boolean changed = query.containsKey("enabled")
+                ? graphManager.setMudangEnabled(from, to, flag(query, "enabled"))
+                : graphManager.updateMudangCost(from, to, parseCost(single(query, "cost")));
+        if (!changed) {
+            throw new RequestException(404, "무당 구간이 없거나 이미 그 상태입니다: " + from + " -> " + to);
+        }
+        return "{\"version\":" + graphManager.getVersion() + "}";
+    }
+
+    // --graph로 연 지도는 읽기 전용이다
+    private void checkEditable() throws RequestException {
+        if (graphManager.getOffHeapGraph() != null) {
+            throw new RequestException(409, "파일에서 연 읽기 전용 그래프는 바꿀 수 없습니다.");
+        }
+    }
+
+    private String metrics() {
+        double uptime = (System.nanoTime() - startedAt) / 1e9;
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"uptimeSeconds\":").append(format(uptime));
+        json.append(",\"endpoints\":{");
+        boolean first = true;
+        for (Map.Entry<String, EndpointStats> entry : stats.entrySet()) {
+            if (!first) json.append(',');
+            first = false;
+            EndpointStats endpoint = entry.getValue();
+            LatencyHistogram latency = endpoint.latency;
+            json.append(BatchRouter.jsonString(entry.getKey())).append(":{")
+                    .append("\"requests\":").append(latency.count())
+                    .append(",\"errors\":").append(endpoint.errors.sum())
+                    .append(",\"qps\":").append(format(uptime > 0 ? latency.count() / uptime : 0))
+                    .append(",\"recentQps\":").append(format(endpoint.recentRate()))
+                    .append(",\"latencyMicros\":{")
+                    .append("\"mean\":").append(format(latency.mean()))
+                    .append(",\"p50\":").append(latency.percentile(0.5))
+                    .append(",\"p90\":").append(latency.percentile(0.9))
+                    .append(",\"p99\":").append(latency.percentile(0.99))
+                    .append(",\"max\":").append(latency.max())
+                    .append("}}");
+        }
+        json.append('}');
+
+        long batched = batcher.requestCount();
+        long searches = batcher.searchCount();
+        json.append(",\"batching\":{\"requests\":").append(batched)
+                .append(",\"searches\":").append(searches)
+                .append(",\"averageBatchSize\":").append(format(searches > 0 ? (double) batched / searches : 0))
+                .append('}');
+
+        long hits = routeCache.hitCount();
+        long misses = routeCache.missCount();
+        json.append(",\"routeCache\":{\"size\":").append(routeCache.size())
+                .append(",\"maxSize\":").append(routeCache.maxSize())
+                .append(",\"hits\":").append(hits)
+                .append(",\"misses\":").append(misses)
+                .append(",\"evictions\":").append(routeCache.evictionCount())
+                .append(",\"hitRate\":").append(format(hits + misses > 0 ? (double) hits / (hits + misses) : 0))
+                .append('}');
+
+        // 탐색 통계는 켜져 있을 때만 채워진다 (-Dsearch.stats=true 또는 JMX)
+        json.append(",\"searchStats\":{\"enabled\":").append(SearchStats.isEnabled())
+                .append(",\"dump\":").append(BatchRouter.jsonString(SearchStats.dump()))
+                .append('}');
+        return json.append('}').toString();
+    }
+
+    // PathInfo를 JSON으로 (구간마다 출발/도착 이름, 무당 여부, 가중치)
+    static String routeJson(PathInfo info, boolean found) {
+        StringBuilder json = new StringBuilder("{\"start\":").append(BatchRouter.jsonString(info.start.name))
+                .append(",\"end\":").append(BatchRouter.jsonString(info.end.name))
+                .append(",\"found\":").append(found)
+                .append(",\"distance\":").append(info.totalDistance)
+                .append(",\"mudangCount\":").append(info.mudangCount)
+                .append(",\"roadCount\":").append(info.roadCount)
+                .append(",\"path\":[");
+        for (int i = 0; i < info.path.size(); i++) {
+            PathSegment segment = info.path.get(i);
+            if (i > 0) json.append(',');
+            json.append("{\"from\":").append(BatchRouter.jsonString(segment.from.name))
+                    .append(",\"to\":").append(BatchRouter.jsonString(segment.to.name))
+                    .append(",\"mudang\":").append(segment.isMudang)
+                    .append(",\"weight\":").append(segment.weight).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void appendNames(StringBuilder json, List<String> names) {
+        json.append('[');
+        for (int i = 0; i < names.size(); i++) {
+            if (i > 0) json.append(',');
+            json.append(BatchRouter.jsonString(names.get(i)));
+        }
+        json.append(']');
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private NameIndex names(CompactGraph graph) {
+        NameIndex current = names;
+        if (current == null || current.graph != graph) {
+            current = new NameIndex(graph);
+            names = current;
+        }
+        return current;
+    }
+
+    // "a=1&b=2&b=3" -> {a: [1], b: [2, 3]} (UTF-8 퍼센트 인코딩 해제)
+    static Map<String, List<String>> parseQuery(String rawQuery) {
+        Map<String, List<String>> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return query;
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq >= 0 ? pair.substring(0, eq) : pair, StandardCharsets.UTF_8);
+            String value = eq >= 0 ? URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8) : "";
+            query.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+        }
+        return query;
+    }
+
+    private static String single(Map<String, List<String>> query, String name) throws RequestException {
+        List<String> values = query.get(name);
+        if (values == null || values.size() != 1) {
+            throw new RequestException(400, "파라미터 '" + name + "'가 하나 있어야 합니다.");
+        }
+        return values.get(0);
+    }
+
+    private static List<String> all(Map<String, List<String>> query, String name) throws RequestException {
+        List<String> values = query.getOrDefault(name, Collections.emptyList());
+        if (values.isEmpty()) {
+            throw new RequestException(400, "파라미터 '" + name + "'가 필요합니다.");
+        }
+        return values;
+    }
+
+    // 무당 포함 여부 (기본값 true)
+    private static boolean flag(Map<String, List<String>> query, String name) throws RequestException {
+        List<String> values = query.get(name);
+        if (values == null) return true;
+        String value = values.get(values.size() - 1);
+        if (value.equals("true") || value.equals("1")) return true;
+        if (value.equals("false") || value.equals("0")) return false;
+        throw new RequestException(400, "파라미터 '" + name + "'는 true 또는 false여야 합니다.");
+    }
+
+    private static int parseBudget(String value) throws RequestException {
+        try {
+            int budget = Integer.parseInt(value);
+            if (budget >= 0) return budget;
+        } catch (NumberFormatException ignored) {
+            // 아래에서 한 번에 알린다
+        }
+        throw new RequestException(400, "예산은 0 이상의 정수여야 합니다: " + value);
+    }
+
+    // "08:05" 또는 자정부터 센 분("485") -> 0 ~ 1439
+    private static int parseTime(String value) throws RequestException {
+        try {
+            int colon = value.indexOf(':');
+            if (colon < 0) {
+                int minutes = Integer.parseInt(value);
+                if (minutes >= 0 && minutes < 24 * 60) return minutes;
+            } else {
+                int hour = Integer.parseInt(value.substring(0, colon));
+                int minute = Integer.parseInt(value.substring(colon + 1));
+                if (hour >= 0 && hour < 24 && minute >= 0 && minute < 60 && value.length() - colon == 3) return hour * 60 + minute;
+            }
+        } catch (NumberFormatException ignored) {
+            // 아래에서 한 번에 알린다
+        }
+        throw new RequestException(400, "depart는 HH:MM 또는 0 ~ 1439 사이의 분이어야 합니다: " + value);
+    }
+
+    private static int parseCost(String value) throws RequestException {
+        try {
+            int cost = Integer.parseInt(value);
+            if (cost > 0) return cost;
+        } catch (NumberFormatException ignored) {
+            // 아래에서 한 번에 알린다
+        }
+        throw new RequestException(400, "비용은 1 이상의 정수여야 합니다: " + value);
+    }
+
+    private interface Handler {
+        String handle(Map<String, List<String>> query) throws RequestException;
+    }
+
+    private static final class RequestException extends Exception {
+        final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private static int require(NodeNameIndex index, String name) throws RequestException {
+        int node = index.idOf(name);
+        if (node < 0) {
+            throw new RequestException(404, "알 수 없는 노드: " + name);
+        }
+        return node;
+    }
+
+    // 그래프 스냅샷의 노드 번호로 찾는 이름 색인
+    private static final class NameIndex {
+        final CompactGraph graph;
+        final NodeNameIndex index;
+
+        NameIndex(CompactGraph graph) {
+            this.graph = graph;
+            this.index = graph.nameIndex();
+        }
+
+        int require(String name) throws RequestException {
+            return RoutingServer.require(index, name);
+        }
+
+        int[] requireAll(List<String> names) throws RequestException {
+            int[] nodes = new int[names.size()];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = require(names.get(i));
+            }
+            return nodes;
+        }
+    }
+
+    // 엔드포인트별 지연 시간 분포, 오류 수, 최근 RECENT_SECONDS초 동안의 초당 요청 수 (모두 잠금 없이 기록)
+    private static final class EndpointStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        // 초 단위 링 버퍼: seconds[slot]초에 들어온 요청 수가 counts[slot]
+        private final AtomicLongArray seconds = new AtomicLongArray(RECENT_SECONDS + 1);
+        private final AtomicLongArray counts = new AtomicLongArray(RECENT_SECONDS + 1);
+
+        void record(long nanos, boolean error) {
+            latency.recordNanos(nanos);
+            if (error) errors.increment();
+            long second = System.nanoTime() / 1_000_000_000L;
+            int slot = (int) (second % seconds.length());
+            long stamp = seconds.get(slot);
+            if (stamp != second && seconds.compareAndSet(slot, stamp, second)) {
+                counts.set(slot, 0);
+            }
+            counts.incrementAndGet(slot);
+        }
+
+        // 지금 진행 중인 초를 빼고 직전 RECENT_SECONDS초의 평균
+        double recentRate() {
+            long now = System.nanoTime() / 1_000_000_000L;
+            long total = 0;
+            for (int slot = 0; slot < seconds.length(); slot++) {
+                long second = seconds.get(slot);
+                if (second < now && second >= now - RECENT_SECONDS) total += counts.get(slot);
+            }
+            return (double) total / RECENT_SECONDS;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// 경로 탐색을 EDT 밖의 전용 작업 스레드에서 수행하는 서비스
+// 화면에는 가장 최근 요청의 결과만 의미가 있으므로 새 요청이 들어오면 끝나지 않은 같은 종류의 이전 탐색을 취소한다
+// 종류마다 작업 스레드가 따로 있어서, 도달 범위를 다시 칠해도 기다리던 경로 요청이 취소되거나 뒤로 밀리지 않는다
+// 취소는 작업 스레드를 인터럽트하고, 탐색 루프(SearchWorkspace.settle)가 이를 확인해 중단한다
+public final class RoutingService {
+
+    // 작업 종류 (같은 종류끼리만 최신 요청이 이전 요청을 취소한다)
+    public enum Kind {
+        ROUTE,   // 최단 경로
+        EXTRAS,  // 경로와 함께 보여 주는 부가 정보 (탐색 방식 비교, 대안 경로 등)
+        OVERLAY  // 도달 범위처럼 지도에 덧칠하는 것
+    }
+
+    private final RouteCache routeCache;
+    private final Map<Kind, Slot> slots = new EnumMap<>(Kind.class);
+
+    // 종류별 작업 스레드와 마지막으로 제출한 작업, 그 결과 (RoutingService 객체로 잠근다)
+    private static final class Slot {
+        final ExecutorService worker;
+        Future<?> running;
+        CompletableFuture<?> latest;
+
+        Slot(Kind kind) {
+            String name = "route-worker-" + kind.name().toLowerCase();
+            worker = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public RoutingService(RouteCache routeCache) {
+        this.routeCache = routeCache;
+        for (Kind kind : Kind.values()) {
+            slots.put(kind, new Slot(kind));
+        }
+    }
+
+    // 경로 조회 (캐시에 없으면 작업 스레드에서 탐색), 더 새로운 경로 요청만 이 요청을 취소한다
+    public CompletableFuture<PathInfo> route(Node start, Node end, boolean includeMudang) {
+        return submit(Kind.ROUTE, () -> routeCache.get(start, end, includeMudang));
+    }
+
+    // 탐색 작업을 그 종류의 최신 요청으로 제출하고 같은 종류의 이전 요청은 취소한다
+    // 취소된 요청의 future는 CancellationException으로 끝난다
+    public synchronized <T> CompletableFuture<T> submit(Kind kind, Callable<T> search) {
+        cancel(kind);
+        Slot slot = slots.get(kind);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        slot.running = slot.worker.submit(() -> {
+            if (result.isDone()) return; // 시작하기 전에 취소됨
+            try {
+                result.complete(search.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        slot.latest = result;
+        return result;
+    }
+
+    // 그 종류의 진행 중이거나 대기 중인 요청 취소
+    public synchronized void cancel(Kind kind) {
+        Slot slot = slots.get(kind);
+        if (slot.latest != null) {
+            slot.latest.cancel(false);
+            slot.running.cancel(true);
+            slot.latest = null;
+            slot.running = null;
+        }
+    }
+
+    // 모든 종류의 요청 취소
+    public synchronized void cancel() {
+        for (Kind kind : Kind.values()) {
+            cancel(kind);
+        }
+    }
+
+    public void shutdown() {
+        for (Slot slot : slots.values()) {
+            slot.worker.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+// 점대점 최단 경로 탐색 방식
+public enum SearchMode {
+    DIJKSTRA("Dijkstra"),
+    ASTAR("A*"),              // 좌표 직선 거리 * 픽셀당 최소 비용을 휴리스틱으로 사용
+    BIDIRECTIONAL("양방향");   // 출발지와 도착지에서 동시에 탐색
+
+    private final String label;
+
+    SearchMode(String label) {
+        this.label = label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,195 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// 탐색 한 번마다 확정 노드, 훑은 arc, 힙 삽입/키 감소, 버린(오래된) 힙 항목 수와 걸린 시간을 모으는 계측
+// 켜져 있을 때만 탐색이 끝나는 시점에 종류별 합계와 잠금 없는 지연 시간 히스토그램에 더한다
+// 꺼져 있으면 탐색당 volatile 읽기 한 번 외에는 아무것도 하지 않는다 (시작 시각도 재지 않는다)
+// 실행 중에 JMX(campus.routing:type=SearchStats)나 setEnabled로 켜고 끌 수 있다
+public final class SearchStats {
+    static final String MBEAN_NAME = "campus.routing:type=SearchStats";
+
+    // 탐색 종류
+    public enum Kind {
+        DIJKSTRA("Dijkstra"),
+        ASTAR("A*"),
+        BIDIRECTIONAL("양방향"),
+        CONTRACTION_HIERARCHY("CH"),
+        TIME_DEPENDENT("시간표"),
+        K_SHORTEST("k-최단 spur"),
+        MATRIX("거리 행렬"),
+        ISOCHRONE("도달 범위"),
+        PARETO("Pareto");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private static volatile boolean enabled = Boolean.getBoolean("search.stats");
+    // 종류(ordinal)별 합계, reset하면 배열째 바꾼다
+    private static volatile Totals[] totals = freshTotals();
+
+    private SearchStats() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    // 탐색 한 번의 결과를 더한다 (켜져 있을 때만 호출된다)
+    static void record(Kind kind, int settled, int scannedArcs, int pushes, int decreases, int stalePops, long nanos) {
+        Totals current = totals[kind.ordinal()];
+        current.queries.increment();
+        current.settled.add(settled);
+        current.scannedArcs.add(scannedArcs);
+        current.pushes.add(pushes);
+        current.decreases.add(decreases);
+        current.stalePops.add(stalePops);
+        current.latency.recordNanos(nanos);
+    }
+
+    public static void reset() {
+        totals = freshTotals();
+    }
+
+    public static long queryCount(Kind kind) {
+        return totals[kind.ordinal()].queries.sum();
+    }
+
+    public static LatencyHistogram latency(Kind kind) {
+        return totals[kind.ordinal()].latency;
+    }
+
+    private static Totals[] freshTotals() {
+        Totals[] fresh = new Totals[Kind.values().length];
+        for (int i = 0; i < fresh.length; i++) {
+            fresh[i] = new Totals();
+        }
+        return fresh;
+    }
+
+    // 종류별 표 (탐색이 한 번도 없던 종류는 뺀다)
+    public static String dump() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("탐색 통계 (%s)%n", enabled ? "기록 중" : "꺼짐"));
+        out.append(String.format("%-12s %9s %10s %10s %10s %10s %8s %8s %8s %8s %8s%n",
+                "종류", "질의", "확정/질의", "arc/질의", "삽입/질의", "감소/질의", "버림", "p50us", "p90us", "p99us", "maxus"));
+        Totals[] snapshot = totals;
+        for (Kind kind : Kind.values()) {
+            Totals current = snapshot[kind.ordinal()];
+            long queries = current.queries.sum();
+            if (queries == 0) continue;
+            LatencyHistogram latency = current.latency;
+            out.append(String.format("%-12s %9d %10.1f %10.1f %10.1f %10.1f %8d %8d %8d %8d %8d%n",
+                    kind, queries,
+                    (double) current.settled.sum() / queries,
+                    (double) current.scannedArcs.sum() / queries,
+                    (double) current.pushes.sum() / queries,
+                    (double) current.decreases.sum() / queries,
+                    current.stalePops.sum(),
+                    latency.percentile(0.5), latency.percentile(0.9), latency.percentile(0.99), latency.max()));
+        }
+        return out.toString();
+    }
+
+    // 플랫폼 MBean 서버에 등록 (이미 등록되어 있으면 그대로 둔다)
+    public static void registerMBean() {
+        try {
+            ObjectName name = new ObjectName(MBEAN_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), name);
+            }
+        } catch (JMException e) {
+            System.err.println("탐색 통계 MBean 등록 실패: " + e);
+        }
+    }
+
+    private static final class Totals {
+        final LongAdder queries = new LongAdder();
+        final LongAdder settled = new LongAdder();
+        final LongAdder scannedArcs = new LongAdder();
+        final LongAdder pushes = new LongAdder();
+        final LongAdder decreases = new LongAdder();
+        final LongAdder stalePops = new LongAdder();
+        final LatencyHistogram latency = new LatencyHistogram();
+    }
+
+    private static long sum(Function<Totals, LongAdder> field) {
+        long total = 0;
+        for (Totals current : totals) {
+            total += field.apply(current).sum();
+        }
+        return total;
+    }
+
+    private static final class Bean implements SearchStatsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        @Override
+        public void setEnabled(boolean on) {
+            SearchStats.setEnabled(on);
+        }
+
+        @Override
+        public long getQueryCount() {
+            return sum(current -> current.queries);
+        }
+
+        @Override
+        public long getSettledNodes() {
+            return sum(current -> current.settled);
+        }
+
+        @Override
+        public long getScannedArcs() {
+            return sum(current -> current.scannedArcs);
+        }
+
+        @Override
+        public long getHeapPushes() {
+            return sum(current -> current.pushes);
+        }
+
+        @Override
+        public long getHeapDecreases() {
+            return sum(current -> current.decreases);
+        }
+
+        @Override
+        public long getStalePops() {
+            return sum(current -> current.stalePops);
+        }
+
+        @Override
+        public long getDijkstraP99Micros() {
+            return latency(Kind.DIJKSTRA).percentile(0.99);
+        }
+
+        @Override
+        public String dump() {
+            return SearchStats.dump();
+        }
+
+        @Override
+        public void reset() {
+            SearchStats.reset();
+        }
+    }
+}
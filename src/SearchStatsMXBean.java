@@ -0,0 +1,25 @@
+// JMX로 보는 탐색 통계 (SearchStats 참고), 값은 모든 탐색 종류의 합계
+public interface SearchStatsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getQueryCount();
+
+    long getSettledNodes();
+
+    long getScannedArcs();
+
+    long getHeapPushes();
+
+    long getHeapDecreases();
+
+    long getStalePops();
+
+    long getDijkstraP99Micros();
+
+    // 종류별 표 (SearchStats.dump)
+    String dump();
+
+    void reset();
+}
@@ -0,0 +1,133 @@
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+// 탐색 한 번에 필요한 배열 묶음 (스레드마다 하나씩 재사용)
+// 세대(generation) 번호가 다른 칸은 초기값으로 취급하므로 질의마다 배열을 비우지 않는다
+final class SearchWorkspace {
+    private static final ThreadLocal<SearchWorkspace> LOCAL = ThreadLocal.withInitial(SearchWorkspace::new);
+    // 양방향 탐색의 역방향 쪽
+    private static final ThreadLocal<SearchWorkspace> BACKWARD = ThreadLocal.withInitial(SearchWorkspace::new);
+
+    // 도착 경로 인코딩: 보도 arc는 그대로, 무당 arc는 ~index, 없으면 NO_ARC
+    static final int NO_ARC = Integer.MIN_VALUE;
+
+    // 인터럽트 확인 간격 (확정 노드 4096개마다)
+    private static final int CANCEL_CHECK_MASK = 4095;
+
+    final IndexedMinHeap heap = new IndexedMinHeap();
+    int[] distance = new int[0];
+    int[] parent = new int[0];
+    int[] parentArc = new int[0];
+    private int[] touched = new int[0];  // distance/parent가 유효한 세대
+    private int[] settled = new int[0];  // 확정된 세대
+    private int generation;
+    int settledCount;      // 이번 탐색에서 확정한 노드 수
+    int lastSettledCount;  // 마지막으로 끝난 질의의 확정 노드 수 (양방향은 두 방향의 합)
+    int scannedArcs;       // 이번 탐색에서 확정한 노드들의 나가는 arc 수 (탐색 통계용)
+    private long startedAt; // 탐색 통계가 켜져 있을 때만 기록
+
+    // 켜져 있으면 확정 순서대로 노드를 기록한다 (디버그 표시용)
+    private boolean tracing;
+    private int[] trace = new int[0];
+    private int traceSize;
+
+    // 현재 스레드의 작업 공간을 n개 노드용으로 준비해 돌려준다
+    static SearchWorkspace current(int nodeCount) {
+        SearchWorkspace workspace = LOCAL.get();
+        workspace.begin(nodeCount);
+        return workspace;
+    }
+
+    static SearchWorkspace backward(int nodeCount) {
+        SearchWorkspace workspace = BACKWARD.get();
+        workspace.begin(nodeCount);
+        return workspace;
+    }
+
+    // 현재 스레드에서 마지막으로 끝난 질의의 확정 노드 수
+    static int lastSettledCount() {
+        return LOCAL.get().lastSettledCount;
+    }
+
+    void begin(int nodeCount) {
+        if (touched.length < nodeCount) {
+            int capacity = Math.max(nodeCount, touched.length * 2);
+            distance = Arrays.copyOf(distance, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            parentArc = Arrays.copyOf(parentArc, capacity);
+            touched = Arrays.copyOf(touched, capacity);
+            settled = Arrays.copyOf(settled, capacity);
+        }
+        heap.ensureCapacity(nodeCount);
+        heap.clear();
+        settledCount = 0;
+        scannedArcs = 0;
+        startedAt = SearchStats.isEnabled() ? System.nanoTime() : 0;
+        if (++generation == 0) {
+            // 세대 번호가 한 바퀴 돌면 한 번만 실제로 비운다
+            Arrays.fill(touched, 0);
+            Arrays.fill(settled, 0);
+            generation = 1;
+        }
+    }
+
+    int distanceOf(int node) {
+        return touched[node] == generation ? distance[node] : Integer.MAX_VALUE;
+    }
+
+    boolean isReached(int node) {
+        return touched[node] == generation;
+    }
+
+    boolean isSettled(int node) {
+        return settled[node] == generation;
+    }
+
+    // 오래 걸리는 탐색을 취소할 수 있도록 일정 개수를 확정할 때마다 스레드 인터럽트를 확인한다
+    void settle(int node) {
+        settled[node] = generation;
+        if (tracing) {
+            if (traceSize == trace.length) trace = Arrays.copyOf(trace, Math.max(64, traceSize * 2));
+            trace[traceSize++] = node;
+        }
+        if ((++settledCount & CANCEL_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("탐색이 취소되었습니다.");
+        }
+    }
+
+    // 탐색을 마칠 때 호출: 확정 노드 수를 남기고, 통계가 켜져 있으면 이번 탐색을 기록한다
+    void finish(SearchStats.Kind kind) {
+        lastSettledCount = settledCount;
+        if (startedAt != 0 && SearchStats.isEnabled()) {
+            SearchStats.record(kind, settledCount, scannedArcs, heap.pushes, heap.decreases, 0, System.nanoTime() - startedAt);
+        }
+    }
+
+    // 양방향 탐색: 두 방향을 합쳐 한 번으로 기록한다
+    void finish(SearchStats.Kind kind, SearchWorkspace other) {
+        lastSettledCount = settledCount + other.settledCount;
+        if (startedAt != 0 && SearchStats.isEnabled()) {
+            SearchStats.record(kind, lastSettledCount, scannedArcs + other.scannedArcs,
+                    heap.pushes + other.heap.pushes, heap.decreases + other.heap.decreases, 0, System.nanoTime() - startedAt);
+        }
+    }
+
+    // 이후 탐색에서 확정한 노드를 기록하기 시작한다 (이전 기록은 지운다)
+    void startTrace() {
+        tracing = true;
+        traceSize = 0;
+    }
+
+    // 기록을 멈추고 지금까지 확정한 노드들을 돌려준다
+    int[] stopTrace() {
+        tracing = false;
+        return Arrays.copyOf(trace, traceSize);
+    }
+
+    void update(int node, int newDistance, int from, int arc) {
+        touched[node] = generation;
+        distance[node] = newDistance;
+        parent[node] = from;
+        parentArc[node] = arc;
+    }
+}
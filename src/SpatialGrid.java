@@ -0,0 +1,122 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+
+// 좌표 평면을 같은 크기의 칸으로 나누고, 칸마다 그 칸과 겹치는 항목 번호를 담아 둔 균일 격자
+// 항목은 경계 사각형으로 등록하며, 화면처럼 주어진 사각형에 걸치는 항목만 빠르게 골라낸다
+// 칸 목록은 CompactGraph와 같이 CSR 배열로 저장하고, 항목 수에 비례하는 배열(칸별 항목, 표시)은 힙 밖에 둔다
+final class SpatialGrid {
+    private static final int MIN_CELL_SIZE = 128;
+    private static final int MAX_CELLS = 1 << 16;
+
+    private final int originX;
+    private final int originY;
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+
+    // cellOffsets[c] ~ cellOffsets[c + 1] 구간이 칸 c에 걸친 항목 번호 (칸 수는 MAX_CELLS 이하라 힙에 둔다)
+    private final int[] cellOffsets;
+    private final IntBuffer cellItems;
+
+    // 여러 칸에 걸친 항목을 한 번만 돌려주기 위한 질의 번호 표시
+    private final IntBuffer marks;
+    private int stamp;
+
+    // minX[i] ~ maxX[i], minY[i] ~ maxY[i] 가 항목 i의 경계 사각형
+    SpatialGrid(int[] minX, int[] minY, int[] maxX, int[] maxY) {
+        this(minX.length, i -> minX[i], i -> minY[i], i -> maxX[i], i -> maxY[i]);
+    }
+
+    // 경계 사각형을 배열로 만들지 않고 항목 번호로 물어본다 (OffHeapGraph 좌표에서 바로 계산할 때)
+    SpatialGrid(int count, IntUnaryOperator minX, IntUnaryOperator minY, IntUnaryOperator maxX, IntUnaryOperator maxY) {
+        int left = Integer.MAX_VALUE, top = Integer.MAX_VALUE;
+        int right = Integer.MIN_VALUE, bottom = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            left = Math.min(left, minX.applyAsInt(i));
+            top = Math.min(top, minY.applyAsInt(i));
+            right = Math.max(right, maxX.applyAsInt(i));
+            bottom = Math.max(bottom, maxY.applyAsInt(i));
+        }
+        if (count == 0) {
+            left = top = right = bottom = 0;
+        }
+        // 좌표 범위가 넓으면 칸 수가 MAX_CELLS를 넘지 않도록 칸을 키운다
+        long width = (long) right - left + 1;
+        long height = (long) bottom - top + 1;
+        int size = MIN_CELL_SIZE;
+        while ((width + size - 1) / size * ((height + size - 1) / size) > MAX_CELLS) {
+            size *= 2;
+        }
+        this.originX = left;
+        this.originY = top;
+        this.cellSize = size;
+        this.columns = (int) ((width + size - 1) / size);
+        this.rows = (int) ((height + size - 1) / size);
+
+        cellOffsets = new int[columns * rows + 1];
+        for (int i = 0; i < count; i++) {
+            for (int row = row(minY.applyAsInt(i)); row <= row(maxY.applyAsInt(i)); row++) {
+                for (int column = column(minX.applyAsInt(i)); column <= column(maxX.applyAsInt(i)); column++) {
+                    cellOffsets[row * columns + column + 1]++;
+                }
+            }
+        }
+        for (int c = 1; c < cellOffsets.length; c++) {
+            cellOffsets[c] += cellOffsets[c - 1];
+        }
+        cellItems = ints(cellOffsets[cellOffsets.length - 1]);
+        int[] cursor = cellOffsets.clone();
+        for (int i = 0; i < count; i++) {
+            for (int row = row(minY.applyAsInt(i)); row <= row(maxY.applyAsInt(i)); row++) {
+                for (int column = column(minX.applyAsInt(i)); column <= column(maxX.applyAsInt(i)); column++) {
+                    cellItems.put(cursor[row * columns + column]++, i);
+                }
+            }
+        }
+        marks = ints(count);
+    }
+
+    private static IntBuffer ints(int count) {
+        return ByteBuffer.allocateDirect(count * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    // 사각형과 같은 칸에 걸친 항목 번호를 한 번씩 넘긴다 (칸 단위라 사각형 밖의 항목이 조금 섞일 수 있다)
+    // 표시 배열을 공유하므로 동시에 부르면 안 된다: 호출하는 쪽은 이 격자를 가진 GraphLayer의 잠금을 잡고 있어야 한다 (GraphLayer.draw)
+    void query(double minX, double minY, double maxX, double maxY, IntConsumer action) {
+        if (maxX < originX || maxY < originY
+                || minX >= originX + (double) columns * cellSize || minY >= originY + (double) rows * cellSize) {
+            return;
+        }
+        int firstColumn = column(minX), lastColumn = column(maxX);
+        int firstRow = row(minY), lastRow = row(maxY);
+        if (++stamp == 0) {
+            for (int i = 0; i < marks.limit(); i++) {
+                marks.put(i, 0);
+            }
+            stamp = 1;
+        }
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * columns + column;
+                for (int k = cellOffsets[cell]; k < cellOffsets[cell + 1]; k++) {
+                    int item = cellItems.get(k);
+                    if (marks.get(item) != stamp) {
+                        marks.put(item, stamp);
+                        action.accept(item);
+                    }
+                }
+            }
+        }
+    }
+
+    private int column(double x) {
+        return (int) Math.max(0, Math.min(columns - 1, Math.floor((x - originX) / cellSize)));
+    }
+
+    private int row(double y) {
+        return (int) Math.max(0, Math.min(rows - 1, Math.floor((y - originY) / cellSize)));
+    }
+}
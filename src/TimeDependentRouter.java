@@ -0,0 +1,153 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 출발 시각에 따라 무당 대기 시간이 달라지는 경로 탐색 (time-dependent Dijkstra)
+// 힙 키 = 도착 시각, 보도는 고정 비용이고 무당은 시간표에서 다음 편을 찾아 도착 시각을 구한다
+// 시간표가 FIFO(늦게 정류장에 오면 늦게 도착)이므로 일반 Dijkstra처럼 노드는 한 번만 확정된다
+public final class TimeDependentRouter {
+    private final CompactGraph graph;
+
+    // 무당 arc -> 시간표 (null이면 시간표 없이 언제나 고정 비용으로 운행)
+    private final MudangTimetable[] timetables;
+
+    // timetablesById[k] = 그래프를 만든 무당 리스트의 k번째 구간 시간표
+    public TimeDependentRouter(CompactGraph graph, MudangTimetable[] timetablesById) {
+        this.graph = graph;
+        this.timetables = new MudangTimetable[graph.mudangTargets.length];
+        for (int arc = 0; arc < timetables.length; arc++) {
+            int id = graph.mudangIds[arc];
+            timetables[arc] = id < timetablesById.length ? timetablesById[id] : null;
+        }
+    }
+
+    public CompactGraph graph() {
+        return graph;
+    }
+
+    // departure에 source를 출발했을 때 target에 가장 빨리 도착하는 시각 (도달 불가면 Integer.MAX_VALUE)
+    public int earliestArrival(int source, int target, int departure) {
+        return search(source, target, departure, true, SearchWorkspace.current(graph.nodeCount()));
+    }
+
+    // 가장 빨리 도착하는 경로 (구간 가중치 = 그 구간에 쓴 시간, 무당은 기다린 시간 포함), 경로가 없으면 빈 목록
+    public List<PathSegment> route(int source, int target, int departure) {
+        SearchWorkspace workspace = SearchWorkspace.current(graph.nodeCount());
+        if (source == target || search(source, target, departure, true, workspace) == Integer.MAX_VALUE) {
+            return Collections.emptyList();
+        }
+        List<PathSegment> path = new ArrayList<>();
+        for (int v = target; v != source; v = workspace.parent[v]) {
+            int u = workspace.parent[v];
+            int arc = workspace.parentArc[v];
+            path.add(new PathSegment(graph.node(u), graph.node(v), arc < 0, workspace.distance[v] - workspace.distance[u]));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    // target이 음수면 모든 노드의 도착 시각을 구한다
+    // timetabled가 false면 시간표가 있는 무당 구간은 쓰지 않는다 (출발 시각과 무관한 구간만으로 걸리는 시간)
+    private int search(int source, int target, int departure, boolean timetabled, SearchWorkspace workspace) {
+        IndexedMinHeap heap = workspace.heap;
+        workspace.update(source, departure, -1, SearchWorkspace.NO_ARC);
+        heap.insertOrDecrease(source, departure);
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            workspace.settle(current);
+            if (current == target) break;
+            int time = workspace.distance[current];
+            workspace.scannedArcs += graph.outDegree(current, true);
+
+            for (int i = graph.walkOffsets[current], end = graph.walkOffsets[current + 1]; i < end; i++) {
+                relax(workspace, current, graph.walkTargets[i], (long) time + graph.walkWeights[i], i);
+            }
+            for (int i = graph.mudangOffsets[current], end = graph.mudangOffsets[current + 1]; i < end; i++) {
+                MudangTimetable timetable = timetables[i];
+                if (timetable == null) {
+                    relax(workspace, current, graph.mudangTargets[i], (long) time + graph.mudangWeights[i], ~i);
+                } else if (timetabled) {
+                    int arrival = timetable.arrivalAt(time);
+                    if (arrival != Integer.MAX_VALUE) {
+                        relax(workspace, current, graph.mudangTargets[i], arrival, ~i);
+                    }
+                }
+            }
+        }
+        workspace.finish(SearchStats.Kind.TIME_DEPENDENT);
+        return target < 0 ? workspace.distanceOf(source) : workspace.distanceOf(target);
+    }
+
+    private static void relax(SearchWorkspace workspace, int current, int neighbor, long arrival, int arc) {
+        if (workspace.isSettled(neighbor) || arrival >= workspace.distanceOf(neighbor)) return;
+        workspace.update(neighbor, (int) arrival, current, arc);
+        workspace.heap.insertOrDecrease(neighbor, (int) arrival);
+    }
+
+    // from ~ to 사이 모든 출발 시각에 대한 도착 시각 프로필 (예: 하루 전체 0 ~ 1439)
+    // 어떤 경로든 "시간표 없는 구간(보도 등)만으로 가기" 아니면 "그런 구간으로 정류장 u까지 가서 시간표 있는 편 d를 처음 타기"로 나뉜다
+    // 편 d마다 (늦어도 출발해야 하는 시각 = d 출발 - u까지 걸리는 시간, 도착 시각 = d 하차 후 가장 이른 도착)을 구하고
+    // 더 늦게 출발하면서 더 일찍(같게) 도착하는 항목에 가려지는 것은 버린다
+    public TimeProfile profile(int source, int target, int from, int to) {
+        int n = graph.nodeCount();
+        SearchWorkspace workspace = SearchWorkspace.current(n);
+        search(source, -1, 0, false, workspace);
+        int untimedTime = workspace.distanceOf(target);
+        int[] reachIn = new int[n];
+        for (int v = 0; v < n; v++) {
+            reachIn[v] = workspace.distanceOf(v);
+        }
+
+        // 처음 탈 수 있는 편들: {출발 기한, 하차 정류장, 하차 시각}
+        List<int[]> boardings = new ArrayList<>();
+        for (int u = 0; u < n; u++) {
+            if (reachIn[u] == Integer.MAX_VALUE) continue;
+            for (int i = graph.mudangOffsets[u], end = graph.mudangOffsets[u + 1]; i < end; i++) {
+                MudangTimetable timetable = timetables[i];
+                if (timetable == null) continue;
+                for (int k = 0; k < timetable.size(); k++) {
+                    long latest = (long) timetable.departure(k) - reachIn[u];
+                    if (latest >= from) {
+                        boardings.add(new int[]{(int) latest, graph.mudangTargets[i], timetable.arrival(k)});
+                    }
+                }
+            }
+        }
+
+        // 출발 기한이 늦은 것부터 보면서, 지금까지 본 항목보다 일찍 도착하는 것만 남긴다
+        boardings.sort((a, b) -> Integer.compare(b[0], a[0]));
+        Map<Long, Integer> arrivalFrom = new HashMap<>(); // (하차 정류장, 하차 시각) -> 도착 시각
+        int[] latest = new int[boardings.size()];
+        int[] arrival = new int[boardings.size()];
+        int count = 0;
+        int bestLater = Integer.MAX_VALUE;
+        for (int[] boarding : boardings) {
+            long key = ((long) boarding[1] << 32) | boarding[2];
+            Integer reached = arrivalFrom.get(key);
+            if (reached == null) {
+                reached = search(boarding[1], target, boarding[2], true, SearchWorkspace.current(n));
+                arrivalFrom.put(key, reached);
+            }
+            if (reached < bestLater) {
+                bestLater = reached;
+                latest[count] = boarding[0];
+                arrival[count++] = reached;
+            }
+        }
+
+        // 출발 기한 오름차순으로 뒤집고, to 이후 항목은 to에 출발할 때 쓰이는 첫 항목만 남긴다
+        int keep = 0;
+        int[] sortedLatest = new int[count];
+        int[] sortedArrival = new int[count];
+        for (int i = count - 1; i >= 0; i--) {
+            sortedLatest[keep] = latest[i];
+            sortedArrival[keep++] = arrival[i];
+            if (latest[i] >= to) break;
+        }
+        return new TimeProfile(untimedTime, Arrays.copyOf(sortedLatest, keep), Arrays.copyOf(sortedArrival, keep));
+    }
+}
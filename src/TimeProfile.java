@@ -0,0 +1,46 @@
+// 한 출발지-도착지 쌍에 대해 출발 시각 -> 가장 이른 도착 시각 함수를 구간 전체에 걸쳐 구한 결과
+// "latestDepartures[i]까지 출발하면 arrivals[i]에 도착"하는 항목들과, 시간표 있는 무당을 타지 않을 때 걸리는 시간으로 표현한다
+public final class TimeProfile {
+    private final int walkTime;            // 시간표 있는 무당 없이(보도 등으로만) 갈 때 걸리는 시간 (못 가면 Integer.MAX_VALUE)
+    private final int[] latestDepartures;  // 오름차순
+    private final int[] arrivals;          // 오름차순 (늦게 출발할수록 늦게 도착하는 항목만 남긴다)
+
+    TimeProfile(int walkTime, int[] latestDepartures, int[] arrivals) {
+        this.walkTime = walkTime;
+        this.latestDepartures = latestDepartures;
+        this.arrivals = arrivals;
+    }
+
+    // departure에 출발할 때 가장 이른 도착 시각 (도달 불가면 Integer.MAX_VALUE), 프로필을 구한 구간 안에서만 유효
+    public int earliestArrival(int departure) {
+        int low = 0;
+        int high = latestDepartures.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (latestDepartures[mid] < departure) low = mid + 1;
+            else high = mid;
+        }
+        int best = low < arrivals.length ? arrivals[low] : Integer.MAX_VALUE;
+        if (walkTime != Integer.MAX_VALUE) {
+            best = (int) Math.min(best, (long) departure + walkTime);
+        }
+        return best;
+    }
+
+    public int walkTime() {
+        return walkTime;
+    }
+
+    // 무당을 타는 항목 수
+    public int size() {
+        return latestDepartures.length;
+    }
+
+    public int latestDeparture(int i) {
+        return latestDepartures[i];
+    }
+
+    public int arrival(int i) {
+        return arrivals[i];
+    }
+}